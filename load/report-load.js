@@ -0,0 +1,40 @@
+// Load profile for comparing the blocking (default) and reactive report stacks.
+//
+//   k6 run -e BASE_URL=http://localhost:8088 -e VUS=2000 load/report-load.js
+//
+// Run it once against the default profile and once with SPRING_PROFILES_ACTIVE=reactive,
+// then compare http_req_duration percentiles, http_req_failed and the peak live thread count
+// reported by /actuator/metrics/jvm.threads.live.
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8088';
+const VUS = parseInt(__ENV.VUS || '1000');
+const ASSETS = ['btc', 'eth', 'ton'];
+const DURATIONS = ['1h', '6h', '24h'];
+
+export const options = {
+    scenarios: {
+        ramp: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: '2m', target: VUS },
+                { duration: '30s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+export default function () {
+    const asset = ASSETS[Math.floor(Math.random() * ASSETS.length)];
+    const duration = DURATIONS[Math.floor(Math.random() * DURATIONS.length)];
+    const res = http.get(`${BASE_URL}/api/v1/report/asset=${asset}&duration=${duration}`);
+    check(res, { 'status is 200': (r) => r.status === 200 });
+    // Slow clients: each virtual user holds its slot between requests.
+    sleep(1 + Math.random() * 2);
+}
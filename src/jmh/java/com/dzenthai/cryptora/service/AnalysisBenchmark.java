@@ -0,0 +1,103 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.mapper.AnalysisMapper;
+import com.dzenthai.cryptora.mapper.IndicatorMapper;
+import com.dzenthai.cryptora.model.context.CandleSeries;
+import com.dzenthai.cryptora.model.dto.Analysis;
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.repository.CandleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.ta4j.core.BarSeries;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnalysisBenchmark {
+
+    /**
+     * The analysis only ever sees the configured max bars, so the in-memory benchmarks run on that many. The
+     * store holds 90 days of candles, which the series load has to find the latest bars in.
+     */
+
+    private CryptoraProperties properties;
+
+    private CandleRepository repository;
+
+    private SymbolRegistry symbolRegistry;
+
+    private SeriesCache seriesCache;
+
+    private AnalysisService analysisService;
+
+    private List<Candle> candles;
+
+    private CandleSeries candleSeries;
+
+    private BarSeries series;
+
+    @Setup
+    public void setUp() {
+        properties = BenchmarkFixtures.properties();
+        int bars = properties.tuning().series().maxBars();
+        var stored = BenchmarkFixtures.candles(BenchmarkFixtures.NINETY_DAYS_BARS, 42L);
+        repository = BenchmarkFixtures.repository(stored);
+        symbolRegistry = new SymbolRegistry(properties);
+        seriesCache = new SeriesCache(properties, repository, symbolRegistry);
+        analysisService = new AnalysisService(
+                properties,
+                seriesCache,
+                symbolRegistry,
+                new AnalysisMapper(),
+                new IndicatorMapper(),
+                new SimpleMeterRegistry()
+        );
+        candles = stored.subList(stored.size() - bars, stored.size());
+        candleSeries = new CandleSeries(BenchmarkFixtures.SYMBOL, bars);
+        candles.forEach(candleSeries::append);
+        series = analysisService.buildBarSeries(candles);
+        // Load the cached series outside the measurement.
+        seriesCache.read(BenchmarkFixtures.SYMBOL, CandleSeries::size);
+    }
+
+    @Benchmark
+    public BarSeries buildBarSeries() {
+        return analysisService.buildBarSeries(candles);
+    }
+
+    @Benchmark
+    public BarSeries buildBarSeriesFromCandleSeries() {
+        return analysisService.buildBarSeries(candleSeries);
+    }
+
+    @Benchmark
+    public Analysis evaluateSignals() {
+        return analysisService.evaluateSignals(series, BenchmarkFixtures.SYMBOL, false);
+    }
+
+    /**
+     * The scheduled analysis of a symbol whose series is cached: the bar series is built from the cached
+     * records in place, then evaluated.
+     */
+    @Benchmark
+    public Analysis analyzeCachedSeries() {
+        BarSeries cached = seriesCache.read(BenchmarkFixtures.SYMBOL,
+                cachedCandles -> analysisService.buildBarSeries(cachedCandles));
+        return analysisService.evaluateSignals(cached, BenchmarkFixtures.SYMBOL, false);
+    }
+
+    /**
+     * The first analysis of a symbol after a cold start: its latest bars are read from the 90-day store into
+     * a new cached series.
+     */
+    @Benchmark
+    public int loadSeries() {
+        var cold = new SeriesCache(properties, repository, symbolRegistry);
+        return cold.read(BenchmarkFixtures.SYMBOL, CandleSeries::size);
+    }
+}
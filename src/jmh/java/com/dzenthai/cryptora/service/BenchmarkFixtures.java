@@ -0,0 +1,92 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.repository.CandleMemoryRepository;
+import com.dzenthai.cryptora.repository.CandleRepository;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+
+final class BenchmarkFixtures {
+
+    static final String SYMBOL = "BTCUSDT";
+
+    static final int NINETY_DAYS_BARS = 90 * 24 * 60;
+
+    private BenchmarkFixtures() {
+    }
+
+    static CryptoraProperties properties() {
+        try {
+            var sources = new YamlPropertySourceLoader()
+                    .load("application", new ClassPathResource("application.yaml"));
+            return new Binder(ConfigurationPropertySources.from(sources.getFirst()))
+                    .bind("cryptora", CryptoraProperties.class)
+                    .get();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * One-minute random walk whose volatility switches between calm and turbulent regimes,
+     * ending at the current minute.
+     */
+    static List<Candle> candles(int count, long seed) {
+        var random = new SplittableRandom(seed);
+        var candles = new ArrayList<Candle>(count);
+        Instant openTime = Instant.now().truncatedTo(ChronoUnit.MINUTES)
+                .minus(Duration.ofMinutes(count));
+        double price = 90_000.0;
+        double volatility = 0.0005;
+
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(720) == 0) {
+                volatility = random.nextBoolean() ? 0.0002 : 0.002;
+            }
+            double open = price;
+            double close = open * Math.exp(volatility * random.nextGaussian());
+            double high = Math.max(open, close) * (1 + volatility * Math.abs(random.nextGaussian()) / 2);
+            double low = Math.min(open, close) * (1 - volatility * Math.abs(random.nextGaussian()) / 2);
+            double volume = Math.abs(5 + 3 * random.nextGaussian()) * (volatility / 0.0005);
+
+            candles.add(Candle.builder()
+                    .symbol(SYMBOL)
+                    .openTime(openTime)
+                    .closeTime(openTime.plusMillis(59_999))
+                    .openPrice(open)
+                    .highPrice(high)
+                    .lowPrice(low)
+                    .closePrice(close)
+                    .volume(volume)
+                    .amount(volume * (high + low + close) / 3)
+                    .trades(100 + random.nextInt(2_000))
+                    .build());
+
+            price = close;
+            openTime = openTime.plus(Duration.ofMinutes(1));
+        }
+        return candles;
+    }
+
+    /**
+     * In-memory store preloaded with {@code candles}.
+     */
+    static CandleRepository repository(List<Candle> candles) {
+        var repository = new CandleMemoryRepository();
+        repository.saveAll(candles);
+        return repository;
+    }
+}
@@ -0,0 +1,80 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.model.context.KlineColumns;
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.util.KlineParser;
+import com.dzenthai.cryptora.util.KlineParserCheck;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KlineParsingBenchmark {
+
+    private static final int KLINES_PER_FETCH = 500;
+
+    private CandleService candleService;
+
+    private byte[] response;
+
+    private KlineColumns klines;
+
+    @Setup
+    public void setUp() throws IOException {
+        var candles = BenchmarkFixtures.candles(KLINES_PER_FETCH, 42L);
+        var properties = BenchmarkFixtures.properties();
+        var repository = BenchmarkFixtures.repository(candles);
+        var symbolRegistry = new SymbolRegistry(properties);
+        candleService = new CandleService(repository, new WatermarkService(symbolRegistry),
+                new QuantileService(properties, repository, symbolRegistry),
+                new SeriesCache(properties, repository, symbolRegistry), symbolRegistry,
+                new SimpleMeterRegistry());
+
+        // Shaped like a Binance klines response: times and trades as numbers, decimals as strings.
+        var rows = new StringJoiner(",", "[", "]");
+        for (Candle candle : candles) {
+            rows.add(String.format(Locale.ROOT, "[%d,\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",%d,\"%s\",%d,"
+                            + "\"0.00000000\",\"0.00000000\",\"0\"]",
+                    candle.getOpenTime().toEpochMilli(),
+                    decimal(candle.getOpenPrice()),
+                    decimal(candle.getHighPrice()),
+                    decimal(candle.getLowPrice()),
+                    decimal(candle.getClosePrice()),
+                    decimal(candle.getVolume()),
+                    candle.getCloseTime().toEpochMilli(),
+                    decimal(candle.getAmount()),
+                    candle.getTrades()));
+        }
+        response = rows.toString().getBytes(StandardCharsets.US_ASCII);
+        KlineParserCheck.verify(response, "generated response");
+        klines = new KlineColumns(KLINES_PER_FETCH);
+    }
+
+    private String decimal(double value) {
+        return String.format(Locale.ROOT, "%.8f", value);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KLINES_PER_FETCH)
+    public void parseKlines(Blackhole blackhole) {
+        klines.clear();
+        blackhole.consume(KlineParser.parse(response, klines));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KLINES_PER_FETCH)
+    public void buildCandles(Blackhole blackhole) {
+        klines.clear();
+        KlineParser.parse(response, klines);
+        blackhole.consume(candleService.buildCandles(BenchmarkFixtures.SYMBOL, klines));
+    }
+}
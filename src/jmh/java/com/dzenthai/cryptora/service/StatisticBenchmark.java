@@ -0,0 +1,56 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.mapper.AnalysisMapper;
+import com.dzenthai.cryptora.mapper.IndicatorMapper;
+import com.dzenthai.cryptora.model.context.MarketData;
+import com.dzenthai.cryptora.model.dto.Statistic;
+import com.dzenthai.cryptora.repository.CandleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatisticBenchmark {
+
+    @Param({"24h", "90d"})
+    private String duration;
+
+    private StatisticService statisticService;
+
+    private MarketData marketData;
+
+    @Setup
+    public void setUp() {
+        CryptoraProperties properties = BenchmarkFixtures.properties();
+        var candles = BenchmarkFixtures.candles(BenchmarkFixtures.NINETY_DAYS_BARS, 42L);
+        CandleRepository repository = BenchmarkFixtures.repository(candles);
+
+        var meterRegistry = new SimpleMeterRegistry();
+        var symbolRegistry = new SymbolRegistry(properties);
+        var quantileService = new QuantileService(properties, repository, symbolRegistry);
+        var seriesCache = new SeriesCache(properties, repository, symbolRegistry);
+        var candleService = new CandleService(repository, new WatermarkService(symbolRegistry), quantileService,
+                seriesCache, symbolRegistry, meterRegistry);
+        var analysisService = new AnalysisService(properties, seriesCache, symbolRegistry, new AnalysisMapper(),
+                new IndicatorMapper(), meterRegistry);
+        statisticService = new StatisticService(properties, analysisService, candleService, quantileService);
+
+        marketData = candleService.getMarketData(
+                BenchmarkFixtures.SYMBOL,
+                statisticService.parseDuration(duration),
+                statisticService.getRequiredBars()
+        );
+        // Hydrate the percentile sketches outside the measurement.
+        statisticService.calculateStatisticReport(marketData, duration);
+    }
+
+    @Benchmark
+    public Statistic calculateStatisticReport() {
+        return statisticService.calculateStatisticReport(marketData, duration);
+    }
+}
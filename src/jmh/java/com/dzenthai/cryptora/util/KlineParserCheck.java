@@ -0,0 +1,88 @@
+package com.dzenthai.cryptora.util;
+
+import com.dzenthai.cryptora.model.context.KlineColumns;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+
+public final class KlineParserCheck {
+
+    /**
+     * Round-trips Binance klines responses through {@link KlineParser} and through Jackson, whose decimals are
+     * read with {@link Double#parseDouble}, and fails on the first field that differs in any bit. Run by
+     * {@code ./gradlew checkKlineParser} on the responses under {@code src/jmh/resources/klines}, which are
+     * shaped like the simulator recordings, and by the parsing benchmark on its generated response.
+     */
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private KlineParserCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        for (String directory : args) {
+            List<Path> files;
+            try (Stream<Path> listed = Files.list(Path.of(directory))) {
+                files = listed.filter(file -> file.getFileName().toString().endsWith(".json")).sorted().toList();
+            }
+            if (files.isEmpty()) {
+                throw new IllegalStateException("No klines responses in " + directory);
+            }
+            for (Path file : files) {
+                int rows = verify(Files.readAllBytes(file), file.getFileName().toString());
+                System.out.printf("KlineParserCheck | %s: %d klines match Jackson%n", file.getFileName(), rows);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of klines in the response once every field matches.
+     */
+    public static int verify(byte[] json, String source) throws IOException {
+        JsonNode expected = OBJECT_MAPPER.readTree(json);
+        var columns = new KlineColumns(Math.max(1, expected.size()));
+        int rows = KlineParser.parse(json, columns);
+        if (rows != expected.size() || columns.size() != expected.size()) {
+            throw new IllegalStateException("%s: parsed %d klines, Jackson read %d"
+                    .formatted(source, rows, expected.size()));
+        }
+
+        for (int row = 0; row < rows; row++) {
+            JsonNode kline = expected.get(row);
+            compare(source, row, "openTime", kline.get(0).asLong(), columns.openTime(row));
+            compare(source, row, "openPrice", decimal(kline.get(1)), columns.openPrice(row));
+            compare(source, row, "highPrice", decimal(kline.get(2)), columns.highPrice(row));
+            compare(source, row, "lowPrice", decimal(kline.get(3)), columns.lowPrice(row));
+            compare(source, row, "closePrice", decimal(kline.get(4)), columns.closePrice(row));
+            compare(source, row, "volume", decimal(kline.get(5)), columns.volume(row));
+            compare(source, row, "closeTime", kline.get(6).asLong(), columns.closeTime(row));
+            compare(source, row, "amount", decimal(kline.get(7)), columns.amount(row));
+            compare(source, row, "trades", kline.get(8).asLong(), columns.trades(row));
+        }
+        return rows;
+    }
+
+    private static double decimal(JsonNode value) {
+        return Double.parseDouble(value.asText());
+    }
+
+    private static void compare(String source, int row, String field, long expected, long actual) {
+        if (expected != actual) {
+            throw new IllegalStateException("%s: kline %d %s is %d, Jackson read %d"
+                    .formatted(source, row, field, actual, expected));
+        }
+    }
+
+    private static void compare(String source, int row, String field, double expected, double actual) {
+        if (Double.doubleToRawLongBits(expected) != Double.doubleToRawLongBits(actual)) {
+            throw new IllegalStateException("%s: kline %d %s is %s, Jackson read %s"
+                    .formatted(source, row, field, actual, expected));
+        }
+    }
+}
@@ -1,30 +0,0 @@
-package com.dzenthai.cryptora.configuration;
-
-import com.binance.connector.client.common.configuration.ClientConfiguration;
-import com.binance.connector.client.common.configuration.SignatureConfiguration;
-import com.binance.connector.client.spot.rest.SpotRestApiUtil;
-import com.binance.connector.client.spot.rest.api.SpotRestApi;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-
-@Configuration
-public class BinanceConfig {
-
-    @Value("${binance.api.key}")
-    private String apiKey;
-
-    @Value("${binance.api.secret}")
-    private String apiSecret;
-
-    @Bean
-    public SpotRestApi clientConfiguration() {
-        ClientConfiguration clientConfiguration = SpotRestApiUtil.getClientConfiguration();
-        SignatureConfiguration signatureConfiguration = new SignatureConfiguration();
-        signatureConfiguration.setApiKey(apiKey);
-        signatureConfiguration.setSecretKey(apiSecret);
-        clientConfiguration.setSignatureConfiguration(signatureConfiguration);
-        return new SpotRestApi(clientConfiguration);
-    }
-}
@@ -2,6 +2,9 @@ package com.dzenthai.cryptora.configuration;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.List;
+
 
 @ConfigurationProperties(prefix = "cryptora")
 public record CryptoraProperties(
@@ -10,6 +13,20 @@ public record CryptoraProperties(
         Rsi rsi,
         Atr atr,
         Volume volume,
+        Symbols symbols,
+        Fetch fetch,
+        WriteBehind writeBehind,
+        LoadTest loadTest,
+        Simulator simulator,
+        Replay replay,
+        Cluster cluster,
+        Warmup warmup,
+        Snapshot snapshot,
+        HotTier hotTier,
+        Rollups rollups,
+        Aggregation aggregation,
+        Export export,
+        Pools pools,
         Tuning tuning
 ) {
 
@@ -34,6 +51,121 @@ public record CryptoraProperties(
 
     public record Volume(int period) {}
 
+    public record Symbols(
+            List<String> include,
+            List<String> exclude,
+            List<String> quoteAssets,
+            Discovery discovery
+    ) {
+        public record Discovery(
+                boolean enabled,
+                Duration refresh,
+                double minQuoteVolume,
+                int maxSymbols
+        ) {}
+    }
+
+    public record Fetch(
+            boolean enabled,
+            int concurrency,
+            RateLimit rateLimit
+    ) {
+        public record RateLimit(
+                int maxRetries,
+                Duration retryAfter,
+                Duration jitter,
+                Long seed
+        ) {}
+    }
+
+    public record WriteBehind(
+            boolean enabled,
+            int capacity,
+            int maxBatchRows,
+            Duration flushTimeout
+    ) {}
+
+    public record LoadTest(
+            int symbols,
+            int days,
+            long seed,
+            Duration tick
+    ) {}
+
+    public record Simulator(
+            Duration latency,
+            Duration latencyJitter,
+            double rateLimitRate,
+            double banRate,
+            Duration retryAfter,
+            int weightLimit,
+            Duration history,
+            long seed,
+            String recordings
+    ) {}
+
+    public record Replay(
+            String source,
+            String output,
+            double speed,
+            Duration step,
+            boolean exitOnCompletion
+    ) {}
+
+    public record Cluster(
+            boolean enabled,
+            String nodeId,
+            Duration heartbeat,
+            Duration leaseTtl
+    ) {}
+
+    public record Warmup(
+            boolean enabled,
+            String duration
+    ) {}
+
+    public record Snapshot(
+            boolean enabled,
+            String path,
+            Duration interval
+    ) {}
+
+    public record HotTier(
+            boolean enabled,
+            String path,
+            int capacity
+    ) {}
+
+    public record Rollups(
+            Duration rawWindow,
+            Duration hourlyWindow
+    ) {}
+
+    public record Aggregation(
+            int rowThreshold
+    ) {}
+
+    public record Export(
+            Duration timeout,
+            int maxConcurrent,
+            Duration acquireTimeout
+    ) {}
+
+    public record Pools(
+            Pool ingestion,
+            Pool report,
+            Pool analysis
+    ) {
+        public record Pool(
+                int maximumPoolSize,
+                int minimumIdle,
+                Duration connectionTimeout,
+                Duration queryTimeout,
+                int maxConcurrent,
+                Duration acquireTimeout
+        ) {}
+    }
+
     public record Tuning(
             Thresholds thresholds,
             Series series,
@@ -43,7 +175,9 @@ public record CryptoraProperties(
             Liquidity liquidity,
             VolumeTuning volume,
             Volatility volatility,
-            Confidence confidence
+            Confidence confidence,
+            Chart chart,
+            Sketch sketch
     ) {
         public record Thresholds(double minSafeValue) {}
         public record Series(int maxBars) {}
@@ -99,5 +233,14 @@ public record CryptoraProperties(
                 int smaRsiAgreementBonus,
                 int smaRsiConflictPenalty
         ) {}
+        public record Chart(
+                int maxPoints,
+                int lttbOversampling
+        ) {}
+        public record Sketch(
+                double compression,
+                Duration bucket,
+                Duration retention
+        ) {}
     }
 }
@@ -0,0 +1,143 @@
+package com.dzenthai.cryptora.configuration;
+
+import com.dzenthai.cryptora.util.Bulkhead;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+
+import javax.sql.DataSource;
+
+
+@Configuration
+@Profile("!load-test & !replay")
+public class DataSourceConfig {
+
+    /**
+     * Ingestion (candle writes, leases, Liquibase), reports (reports, exports, charts) and analysis (the
+     * scheduled analysis, cache hydration and warm-up, see {@link com.dzenthai.cryptora.util.Workloads}) get
+     * their own connection pool, JdbcTemplate with its query timeout, transaction manager and bulkhead, so a
+     * burst of reports can neither take the connections the writer needs nor fail the analysis, and a large
+     * insert cannot stall reports. The ingestion beans are primary, anything not wired to a workload
+     * explicitly uses them. All pools are published as {@code hikaricp.*} metrics tagged with their pool
+     * name. The pools are declared here rather than left to DataSourceAutoConfiguration, which backs off in
+     * the {@code reactive} profile once R2DBC registers a ConnectionFactory; Liquibase and the JDBC
+     * repositories run on them in every profile.
+     */
+
+    public static final String INGESTION = "ingestion";
+
+    public static final String REPORT = "report";
+
+    public static final String ANALYSIS = "analysis";
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties, CryptoraProperties cryptoraProperties) {
+        return pool(dataSourceProperties, INGESTION, cryptoraProperties.pools().ingestion(), false);
+    }
+
+    @Bean
+    public HikariDataSource reportDataSource(DataSourceProperties dataSourceProperties, CryptoraProperties cryptoraProperties) {
+        return pool(dataSourceProperties, REPORT, cryptoraProperties.pools().report(), true);
+    }
+
+    @Bean
+    public HikariDataSource analysisDataSource(DataSourceProperties dataSourceProperties, CryptoraProperties cryptoraProperties) {
+        return pool(dataSourceProperties, ANALYSIS, cryptoraProperties.pools().analysis(), true);
+    }
+
+    @Bean
+    @Primary
+    public JdbcTemplate jdbcTemplate(DataSource dataSource, CryptoraProperties cryptoraProperties) {
+        return template(dataSource, cryptoraProperties.pools().ingestion());
+    }
+
+    @Bean
+    public JdbcTemplate reportJdbcTemplate(
+            @Qualifier("reportDataSource") DataSource reportDataSource,
+            CryptoraProperties cryptoraProperties
+    ) {
+        return template(reportDataSource, cryptoraProperties.pools().report());
+    }
+
+    @Bean
+    public JdbcTemplate analysisJdbcTemplate(
+            @Qualifier("analysisDataSource") DataSource analysisDataSource,
+            CryptoraProperties cryptoraProperties
+    ) {
+        return template(analysisDataSource, cryptoraProperties.pools().analysis());
+    }
+
+    @Bean
+    @Primary
+    public JdbcTransactionManager transactionManager(DataSource dataSource) {
+        return new JdbcTransactionManager(dataSource);
+    }
+
+    @Bean
+    public JdbcTransactionManager reportTransactionManager(@Qualifier("reportDataSource") DataSource reportDataSource) {
+        return new JdbcTransactionManager(reportDataSource);
+    }
+
+    @Bean
+    public JdbcTransactionManager analysisTransactionManager(@Qualifier("analysisDataSource") DataSource analysisDataSource) {
+        return new JdbcTransactionManager(analysisDataSource);
+    }
+
+    @Bean
+    public Bulkhead ingestionBulkhead(CryptoraProperties cryptoraProperties, MeterRegistry meterRegistry) {
+        return bulkhead(INGESTION, cryptoraProperties.pools().ingestion(), meterRegistry);
+    }
+
+    @Bean
+    public Bulkhead reportBulkhead(CryptoraProperties cryptoraProperties, MeterRegistry meterRegistry) {
+        return bulkhead(REPORT, cryptoraProperties.pools().report(), meterRegistry);
+    }
+
+    @Bean
+    public Bulkhead analysisBulkhead(CryptoraProperties cryptoraProperties, MeterRegistry meterRegistry) {
+        return bulkhead(ANALYSIS, cryptoraProperties.pools().analysis(), meterRegistry);
+    }
+
+    private HikariDataSource pool(
+            DataSourceProperties dataSourceProperties,
+            String name,
+            CryptoraProperties.Pools.Pool pool,
+            boolean readOnly
+    ) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(pool.maximumPoolSize());
+        dataSource.setMinimumIdle(Math.min(pool.minimumIdle(), pool.maximumPoolSize()));
+        dataSource.setConnectionTimeout(pool.connectionTimeout().toMillis());
+        dataSource.setReadOnly(readOnly);
+        return dataSource;
+    }
+
+    private JdbcTemplate template(DataSource dataSource, CryptoraProperties.Pools.Pool pool) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setQueryTimeout((int) pool.queryTimeout().toSeconds());
+        return jdbcTemplate;
+    }
+
+    private Bulkhead bulkhead(String workload, CryptoraProperties.Pools.Pool pool, MeterRegistry meterRegistry) {
+        return new Bulkhead(workload, pool.maxConcurrent(), pool.acquireTimeout(), meterRegistry);
+    }
+}
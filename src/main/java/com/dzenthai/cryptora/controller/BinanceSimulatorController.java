@@ -0,0 +1,68 @@
+package com.dzenthai.cryptora.controller;
+
+import com.dzenthai.cryptora.service.BinanceSimulatorService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+
+@RestController
+@Profile("binance-sim")
+@RequestMapping("/api/v3")
+public class BinanceSimulatorController {
+
+    private static final String USED_WEIGHT_HEADER = "X-MBX-USED-WEIGHT-1M";
+
+    private final BinanceSimulatorService binanceSimulatorService;
+
+    public BinanceSimulatorController(BinanceSimulatorService binanceSimulatorService) {
+        this.binanceSimulatorService = binanceSimulatorService;
+    }
+
+    @GetMapping("/klines")
+    public ResponseEntity<?> klines(
+            @RequestParam String symbol,
+            @RequestParam String interval,
+            @RequestParam(required = false) Long startTime,
+            @RequestParam(required = false) Long endTime,
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        return respond(BinanceSimulatorService.getKlinesWeight(limit),
+                () -> binanceSimulatorService.getKlines(symbol, interval, startTime, endTime, limit));
+    }
+
+    @GetMapping("/exchangeInfo")
+    public ResponseEntity<?> exchangeInfo() {
+        return respond(BinanceSimulatorService.getExchangeInfoWeight(), binanceSimulatorService::getExchangeInfo);
+    }
+
+    @GetMapping("/ticker/24hr")
+    public ResponseEntity<?> ticker24hr(@RequestParam(defaultValue = "FULL") String type) {
+        return respond(BinanceSimulatorService.getTicker24hrWeight(), () -> binanceSimulatorService.getTickers(type));
+    }
+
+    private ResponseEntity<?> respond(int weight, Supplier<?> body) {
+        binanceSimulatorService.delay();
+        var throttle = binanceSimulatorService.acquire(weight);
+        var response = ResponseEntity.status(throttle.status())
+                .header(USED_WEIGHT_HEADER, String.valueOf(throttle.usedWeight()));
+        if (!throttle.rejected()) {
+            return response.body(body.get());
+        }
+
+        String message = throttle.status() == HttpStatus.I_AM_A_TEAPOT
+                ? "Way too much request weight used; IP banned until further notice."
+                : "Too much request weight used; please use WebSocket Streams for live updates to avoid polling.";
+        return response
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, throttle.retryAfter().toSeconds())))
+                .body(Map.of("code", -1003, "msg", message));
+    }
+}
@@ -0,0 +1,61 @@
+package com.dzenthai.cryptora.controller;
+
+import com.dzenthai.cryptora.model.enums.ExportFormat;
+import com.dzenthai.cryptora.service.ChartService;
+import com.dzenthai.cryptora.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.time.Instant;
+
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/v1/candle")
+public class CandleController {
+
+    private final ExportService exportService;
+
+    private final ChartService chartService;
+
+    public CandleController(
+            ExportService exportService,
+            ChartService chartService
+    ) {
+        this.exportService = exportService;
+        this.chartService = chartService;
+    }
+
+    @GetMapping("/export/asset={asset}")
+    public WebAsyncTask<Void> export(
+            @PathVariable String asset,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) Instant after,
+            @RequestParam(defaultValue = "0") int limit,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response
+    ) {
+        return exportService.exportCandles(asset, from, to, after, limit, ExportFormat.of(format), response);
+    }
+
+    @GetMapping("/chart/asset={asset}&duration={duration}")
+    public ResponseEntity<?> chart(
+            @PathVariable String asset,
+            @PathVariable String duration,
+            @RequestParam(defaultValue = "1m") String interval,
+            @RequestParam(defaultValue = "ohlc") String mode,
+            @RequestParam(defaultValue = "500") int points
+    ) {
+        return new ResponseEntity<>(chartService.getChart(asset, duration, interval, mode, points),
+                HttpStatus.OK);
+    }
+}
@@ -0,0 +1,58 @@
+package com.dzenthai.cryptora.controller;
+
+import com.dzenthai.cryptora.model.dto.Report;
+import com.dzenthai.cryptora.service.ReactiveReportService;
+import com.dzenthai.cryptora.service.WatermarkService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/report")
+public class ReactiveReportController {
+
+    private final ReactiveReportService reactiveReportService;
+
+    private final WatermarkService watermarkService;
+
+    public ReactiveReportController(
+            ReactiveReportService reactiveReportService,
+            WatermarkService watermarkService
+    ) {
+        this.reactiveReportService = reactiveReportService;
+        this.watermarkService = watermarkService;
+    }
+
+    @GetMapping("/asset={asset}&duration={duration}")
+    public Mono<ResponseEntity<Report>> report(
+            @PathVariable String asset,
+            @PathVariable String duration,
+            ServerWebExchange exchange
+    ) {
+        var watermark = watermarkService.getWatermark(asset);
+        if (watermark.isEmpty()) {
+            return reactiveReportService.getReport(asset, duration)
+                    .map(ResponseEntity::ok);
+        }
+
+        Instant lastModified = watermark.get();
+        String eTag = watermarkService.getETag(asset, duration, lastModified);
+        if (exchange.checkNotModified(eTag, lastModified)) {
+            return Mono.empty();
+        }
+        return reactiveReportService.getReport(asset, duration)
+                .map(report -> ResponseEntity.ok()
+                        .eTag(eTag)
+                        .lastModified(lastModified)
+                        .body(report));
+    }
+}
@@ -1,32 +1,59 @@
 package com.dzenthai.cryptora.controller;
 
 import com.dzenthai.cryptora.service.ReportService;
+import com.dzenthai.cryptora.service.WatermarkService;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
 
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/report")
 public class ReportController {
 
     private final ReportService reportService;
 
+    private final WatermarkService watermarkService;
+
     public ReportController(
-            ReportService reportService
+            ReportService reportService,
+            WatermarkService watermarkService
     ) {
         this.reportService = reportService;
+        this.watermarkService = watermarkService;
     }
 
     @GetMapping("/asset={asset}&duration={duration}")
     public ResponseEntity<?> report(
             @PathVariable String asset,
-            @PathVariable String duration
+            @PathVariable String duration,
+            WebRequest request
     ) {
-        return new ResponseEntity<>(reportService.getReport(asset, duration),
-                HttpStatus.OK);
+        var watermark = watermarkService.getWatermark(asset);
+        if (watermark.isEmpty()) {
+            return new ResponseEntity<>(reportService.getReport(asset, duration),
+                    HttpStatus.OK);
+        }
+
+        Instant lastModified = watermark.get();
+        String eTag = watermarkService.getETag(asset, duration, lastModified);
+        if (request.checkNotModified(eTag, lastModified.toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .lastModified(lastModified)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .body(reportService.getReport(asset, duration));
     }
 }
@@ -0,0 +1,61 @@
+package com.dzenthai.cryptora.controller;
+
+import com.dzenthai.cryptora.model.dto.SymbolEntry;
+import com.dzenthai.cryptora.service.SymbolRegistry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/v1/symbols")
+public class SymbolController {
+
+    private static final Pattern SYMBOL = Pattern.compile("[A-Z0-9]{2,20}");
+
+    private final SymbolRegistry symbolRegistry;
+
+    public SymbolController(SymbolRegistry symbolRegistry) {
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<SymbolEntry>> symbols() {
+        var symbols = symbolRegistry.getSymbols().stream()
+                .map(symbol -> SymbolEntry.builder()
+                        .id(symbolRegistry.getId(symbol))
+                        .symbol(symbol)
+                        .quoteAsset(symbolRegistry.getQuoteAsset(symbol))
+                        .build())
+                .toList();
+        return new ResponseEntity<>(symbols, HttpStatus.OK);
+    }
+
+    @PutMapping("/{symbol}")
+    public ResponseEntity<Void> add(@PathVariable String symbol) {
+        String upper = symbol.toUpperCase(Locale.ROOT);
+        if (!SYMBOL.matcher(upper).matches() || symbolRegistry.getQuoteAsset(upper) == null) {
+            throw new IllegalArgumentException("Invalid symbol: %s, expected one of the quote assets: %s"
+                    .formatted(symbol, symbolRegistry.getQuoteAssets()));
+        }
+        symbolRegistry.add(upper);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{symbol}")
+    public ResponseEntity<Void> remove(@PathVariable String symbol) {
+        symbolRegistry.remove(symbol);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,11 @@
+package com.dzenthai.cryptora.exception;
+
+import java.time.Duration;
+
+
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String workload, Duration timeout) {
+        super("The %s workload is saturated, no capacity within %s".formatted(workload, timeout));
+    }
+}
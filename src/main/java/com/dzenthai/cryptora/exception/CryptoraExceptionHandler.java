@@ -42,6 +42,11 @@ public class CryptoraExceptionHandler {
         return buildExceptionData(e, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler({BulkheadFullException.class})
+    public ResponseEntity<?> handleBulkheadFullException(BulkheadFullException e) {
+        return buildExceptionData(e, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler({NumberFormatException.class})
     public ResponseEntity<?> handleNumberFormatException(NumberFormatException e) {
         return buildExceptionData(e, HttpStatus.BAD_REQUEST);
@@ -0,0 +1,11 @@
+package com.dzenthai.cryptora.exception;
+
+import java.time.Duration;
+
+
+public class RateLimitedException extends RuntimeException {
+
+    public RateLimitedException(String symbol, Duration remaining) {
+        super("Binance rate limit in force for another %s, skipping %s".formatted(remaining, symbol));
+    }
+}
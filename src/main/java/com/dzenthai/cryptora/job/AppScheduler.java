@@ -1,8 +1,13 @@
 package com.dzenthai.cryptora.job;
 
 import com.dzenthai.cryptora.service.AnalysisService;
+import com.dzenthai.cryptora.service.CandleService;
 import com.dzenthai.cryptora.service.FetchService;
+import com.dzenthai.cryptora.service.ShardService;
+import com.dzenthai.cryptora.service.SymbolRegistry;
+import com.dzenthai.cryptora.util.Workloads;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -13,6 +18,7 @@ import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Component
+@Profile("!replay")
 @EnableScheduling
 public class AppScheduler {
 
@@ -20,9 +26,24 @@ public class AppScheduler {
 
     private final FetchService fetchService;
 
-    public AppScheduler(AnalysisService analysisService, FetchService fetchService) {
+    private final ShardService shardService;
+
+    private final CandleService candleService;
+
+    private final SymbolRegistry symbolRegistry;
+
+    public AppScheduler(
+            AnalysisService analysisService,
+            FetchService fetchService,
+            ShardService shardService,
+            CandleService candleService,
+            SymbolRegistry symbolRegistry
+    ) {
         this.analysisService = analysisService;
         this.fetchService = fetchService;
+        this.shardService = shardService;
+        this.candleService = candleService;
+        this.symbolRegistry = symbolRegistry;
     }
 
     @Async
@@ -33,7 +54,7 @@ public class AppScheduler {
 
     @Async
     public CompletableFuture<Void> analyzeAndGenerateSignalsAsync() {
-        analysisService.getAnalysis();
+        Workloads.analysis(() -> analysisService.getAnalysis(shardService.getOwnedSymbols()));
         return CompletableFuture.completedFuture(null);
     }
 
@@ -51,6 +72,22 @@ public class AppScheduler {
                 });
     }
 
+    /**
+     * Catches up the symbols other nodes fetch, whose candles this node never writes itself, once per lease
+     * heartbeat. Without clustering the node owns every symbol and nothing is read.
+     */
+    @Scheduled(fixedRateString = "${cryptora.cluster.heartbeat}")
+    public void catchUpForeignSymbols() {
+        for (String symbol : symbolRegistry.getSymbols()) {
+            if (shardService.owns(symbol)) continue;
+            try {
+                Workloads.analysis(() -> candleService.catchUp(symbol));
+            } catch (Exception e) {
+                log.warn("AppScheduler | Unable to catch up symbol {}: {}", symbol, e.getMessage());
+            }
+        }
+    }
+
     private void retryFetchNewQuotes(int retryCount) {
         try {
             int delay = (int) Math.pow(2, retryCount) * 1000;
@@ -0,0 +1,116 @@
+package com.dzenthai.cryptora.job;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.service.QuantileService;
+import com.dzenthai.cryptora.service.SeriesCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+
+
+@Slf4j
+@Component
+@Order(0)
+public class SnapshotScheduler implements ApplicationRunner {
+
+    /**
+     * Saves the series cache and the quantile sketches to a local binary file periodically and on shutdown,
+     * and restores them on startup ahead of the warm-up, so a restart reads only the candles persisted since
+     * the snapshot. The file is written next to its target and moved into place, a crash mid-write leaves the
+     * previous snapshot intact. A snapshot that cannot be read is ignored and the state is rebuilt as usual.
+     */
+
+    private static final int MAGIC = 0x43525950;
+
+    private static final int VERSION = 1;
+
+    private final CryptoraProperties cryptoraProperties;
+
+    private final SeriesCache seriesCache;
+
+    private final QuantileService quantileService;
+
+    public SnapshotScheduler(
+            CryptoraProperties cryptoraProperties,
+            SeriesCache seriesCache,
+            QuantileService quantileService
+    ) {
+        this.cryptoraProperties = cryptoraProperties;
+        this.seriesCache = seriesCache;
+        this.quantileService = quantileService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var snapshot = cryptoraProperties.snapshot();
+        if (!snapshot.enabled()) return;
+
+        Path path = Path.of(snapshot.path());
+        if (!Files.exists(path)) {
+            log.info("SnapshotScheduler | No snapshot at {}, starting cold", path);
+            return;
+        }
+        long begin = System.nanoTime();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                log.warn("SnapshotScheduler | Unsupported snapshot format at {}, starting cold", path);
+                return;
+            }
+            seriesCache.readSnapshot(in);
+            quantileService.readSnapshot(in);
+            log.info("SnapshotScheduler | Snapshot restored from {} in {} ms",
+                    path, Duration.ofNanos(System.nanoTime() - begin).toMillis());
+        } catch (Exception e) {
+            log.warn("SnapshotScheduler | Unable to restore the snapshot at {}, starting cold", path, e);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${cryptora.snapshot.interval}", initialDelayString = "${cryptora.snapshot.interval}")
+    public void save() {
+        var snapshot = cryptoraProperties.snapshot();
+        if (!snapshot.enabled()) return;
+
+        Path path = Path.of(snapshot.path()).toAbsolutePath();
+        long begin = System.nanoTime();
+        try {
+            Files.createDirectories(path.getParent());
+            Path temporary = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    seriesCache.writeSnapshot(out);
+                    quantileService.writeSnapshot(out);
+                }
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            log.debug("SnapshotScheduler | Snapshot saved to {}, size: {}, in {} ms",
+                    path, Files.size(path), Duration.ofNanos(System.nanoTime() - begin).toMillis());
+        } catch (IOException e) {
+            log.error("SnapshotScheduler | Unable to save the snapshot to {}", path, e);
+        }
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        log.info("SnapshotScheduler | Saving snapshot before shutdown");
+        save();
+    }
+}
@@ -0,0 +1,99 @@
+package com.dzenthai.cryptora.job;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.service.ShardService;
+import com.dzenthai.cryptora.service.StatisticService;
+import com.dzenthai.cryptora.util.Workloads;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+
+@Slf4j
+@Component
+@Order(1)
+public class WarmupRunner implements ApplicationRunner {
+
+    /**
+     * Computes one statistic report per owned symbol on the analysis workload, as many at a time as its
+     * bulkhead allows, before the application reports ready: runners complete before the readiness state turns
+     * to ACCEPTING_TRAFFIC, so the readiness probe only passes once the candle pages are cached by the
+     * database, the quantile sketches are hydrated and the analysis code has been exercised.
+     */
+
+    private final CryptoraProperties cryptoraProperties;
+
+    private final StatisticService statisticService;
+
+    private final ShardService shardService;
+
+    private final MeterRegistry meterRegistry;
+
+    public WarmupRunner(
+            CryptoraProperties cryptoraProperties,
+            StatisticService statisticService,
+            ShardService shardService,
+            MeterRegistry meterRegistry
+    ) {
+        this.cryptoraProperties = cryptoraProperties;
+        this.statisticService = statisticService;
+        this.shardService = shardService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var warmup = cryptoraProperties.warmup();
+        if (!warmup.enabled()) return;
+
+        // With clustering enabled the node owns nothing until its first heartbeat, so take the leases now.
+        shardService.rebalance();
+        var symbols = shardService.getOwnedSymbols();
+        log.info("WarmupRunner | Warming up {} symbols", symbols.size());
+        long begin = System.nanoTime();
+        // Each warm-up streams up to the retention window, so more of them than permits would only be rejected.
+        Semaphore permits = new Semaphore(Math.max(1, cryptoraProperties.pools().analysis().maxConcurrent()));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String symbol : symbols) {
+                permits.acquireUninterruptibly();
+                executor.submit(() -> {
+                    try {
+                        warmUp(symbol, warmup.duration());
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - begin);
+
+        Timer.builder("cryptora.warmup.duration")
+                .description("Time spent warming up before accepting traffic")
+                .register(meterRegistry)
+                .record(elapsed);
+        log.info("WarmupRunner | Warm-up finished in {} ms, ready {} ms after JVM start",
+                elapsed.toMillis(), ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    private void warmUp(String symbol, String duration) {
+        try {
+            Workloads.analysis(() -> statisticService.calculateStatisticReport(symbol, duration));
+            log.debug("WarmupRunner | Warmed up symbol: {}", symbol);
+        } catch (NoSuchElementException e) {
+            log.debug("WarmupRunner | No data to warm up, symbol: {}", symbol);
+        } catch (Exception e) {
+            log.warn("WarmupRunner | Warm-up failed, symbol: {}", symbol, e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.dzenthai.cryptora.mapper;
+
+import com.dzenthai.cryptora.model.dto.Kline;
+import com.dzenthai.cryptora.model.entity.Candle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+
+@Slf4j
+@Component
+public class KlineMapper {
+
+    public Kline mapToKline(Candle candle) {
+        log.trace("KlineMapper | Building kline for {}", candle.getSymbol());
+        return Kline.builder()
+                .symbol(candle.getSymbol())
+                .openTime(candle.getOpenTime())
+                .closeTime(candle.getCloseTime())
+                .openPrice(candle.getOpenPrice())
+                .highPrice(candle.getHighPrice())
+                .lowPrice(candle.getLowPrice())
+                .closePrice(candle.getClosePrice())
+                .volume(candle.getVolume())
+                .amount(candle.getAmount())
+                .trades(candle.getTrades())
+                .build();
+    }
+
+    public Candle mapToCandle(Kline kline) {
+        log.trace("KlineMapper | Building candle for {}", kline.symbol());
+        return Candle.builder()
+                .symbol(kline.symbol())
+                .openTime(kline.openTime())
+                .closeTime(kline.closeTime())
+                .openPrice(kline.openPrice())
+                .highPrice(kline.highPrice())
+                .lowPrice(kline.lowPrice())
+                .closePrice(kline.closePrice())
+                .volume(kline.volume())
+                .amount(kline.amount())
+                .trades(kline.trades())
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.dzenthai.cryptora.model.context;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+
+/**
+ * Aggregates of the candles of one symbol closing within a window of its latest close time, computed where
+ * the candles are stored. The weighted price sum is the typical price (high + low + close) / 3 times the
+ * volume, summed over the candles.
+ */
+@Builder
+public record CandleAggregate(
+        int entries,
+        Instant firstOpenTime,
+        Instant lastCloseTime,
+        double avgOpenPrice,
+        double avgClosePrice,
+        double avgHighPrice,
+        double avgLowPrice,
+        double avgPriceRange,
+        double maxOpenPrice,
+        double maxClosePrice,
+        double maxHighPrice,
+        double maxLowPrice,
+        double maxPriceRange,
+        double maxVolume,
+        double maxAmount,
+        double minOpenPrice,
+        double minClosePrice,
+        double minHighPrice,
+        double minLowPrice,
+        double minPriceRange,
+        double minVolume,
+        double minAmount,
+        double totalVolume,
+        double totalAmount,
+        double weightedPriceSum
+) {
+
+    public boolean isEmpty() {
+        return entries == 0;
+    }
+}
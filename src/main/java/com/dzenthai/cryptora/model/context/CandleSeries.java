@@ -0,0 +1,135 @@
+package com.dzenthai.cryptora.model.context;
+
+import com.dzenthai.cryptora.model.entity.Candle;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+
+/**
+ * The latest candles of one symbol as fixed-width records in a direct buffer, outside the heap: epoch
+ * millis for the times, doubles for prices and volumes and a long for the trades, 72 bytes per candle and
+ * no objects per candle. Once full, each append overwrites the oldest record. Not thread-safe.
+ */
+public final class CandleSeries {
+
+    private static final int OPEN_TIME = 0;
+    private static final int CLOSE_TIME = 8;
+    private static final int OPEN_PRICE = 16;
+    private static final int HIGH_PRICE = 24;
+    private static final int LOW_PRICE = 32;
+    private static final int CLOSE_PRICE = 40;
+    private static final int VOLUME = 48;
+    private static final int AMOUNT = 56;
+    private static final int TRADES = 64;
+    private static final int RECORD_BYTES = 72;
+
+    private final String symbol;
+
+    private final int capacity;
+
+    private final ByteBuffer records;
+
+    private int first;
+
+    private int size;
+
+    public CandleSeries(String symbol, int capacity) {
+        this.symbol = symbol;
+        this.capacity = capacity;
+        this.records = ByteBuffer.allocateDirect(capacity * RECORD_BYTES);
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long openTime(int index) {
+        return records.getLong(offset(index) + OPEN_TIME);
+    }
+
+    public long closeTime(int index) {
+        return records.getLong(offset(index) + CLOSE_TIME);
+    }
+
+    public double openPrice(int index) {
+        return records.getDouble(offset(index) + OPEN_PRICE);
+    }
+
+    public double highPrice(int index) {
+        return records.getDouble(offset(index) + HIGH_PRICE);
+    }
+
+    public double lowPrice(int index) {
+        return records.getDouble(offset(index) + LOW_PRICE);
+    }
+
+    public double closePrice(int index) {
+        return records.getDouble(offset(index) + CLOSE_PRICE);
+    }
+
+    public double volume(int index) {
+        return records.getDouble(offset(index) + VOLUME);
+    }
+
+    public double amount(int index) {
+        return records.getDouble(offset(index) + AMOUNT);
+    }
+
+    public long trades(int index) {
+        return records.getLong(offset(index) + TRADES);
+    }
+
+    /**
+     * Appends a candle closing after the newest one and returns true, otherwise leaves the series unchanged.
+     */
+    public boolean append(Candle candle) {
+        long closeTime = candle.getCloseTime().toEpochMilli();
+        if (size > 0 && closeTime <= closeTime(size - 1)) return false;
+
+        int offset;
+        if (size < capacity) {
+            offset = offset(size++);
+        } else {
+            offset = first * RECORD_BYTES;
+            first = (first + 1) % capacity;
+        }
+        records.putLong(offset + OPEN_TIME, candle.getOpenTime().toEpochMilli());
+        records.putLong(offset + CLOSE_TIME, closeTime);
+        records.putDouble(offset + OPEN_PRICE, candle.getOpenPrice());
+        records.putDouble(offset + HIGH_PRICE, candle.getHighPrice());
+        records.putDouble(offset + LOW_PRICE, candle.getLowPrice());
+        records.putDouble(offset + CLOSE_PRICE, candle.getClosePrice());
+        records.putDouble(offset + VOLUME, candle.getVolume());
+        records.putDouble(offset + AMOUNT, candle.getAmount());
+        records.putLong(offset + TRADES, candle.getTrades());
+        return true;
+    }
+
+    public Candle getCandle(int index) {
+        return Candle.builder()
+                .symbol(symbol)
+                .openTime(Instant.ofEpochMilli(openTime(index)))
+                .closeTime(Instant.ofEpochMilli(closeTime(index)))
+                .openPrice(openPrice(index))
+                .highPrice(highPrice(index))
+                .lowPrice(lowPrice(index))
+                .closePrice(closePrice(index))
+                .volume(volume(index))
+                .amount(amount(index))
+                .trades(trades(index))
+                .build();
+    }
+
+    private int offset(int index) {
+        return (first + index) % capacity * RECORD_BYTES;
+    }
+}
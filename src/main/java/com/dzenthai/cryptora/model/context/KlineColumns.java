@@ -0,0 +1,122 @@
+package com.dzenthai.cryptora.model.context;
+
+import java.util.Arrays;
+
+
+/**
+ * Klines decoded into one primitive array per field, in the order they were received. The arrays grow as
+ * klines are appended and are kept by {@link #clear()}, so one instance can be reused across responses.
+ * Not thread-safe.
+ */
+public final class KlineColumns {
+
+    private long[] openTimes;
+    private long[] closeTimes;
+    private double[] openPrices;
+    private double[] highPrices;
+    private double[] lowPrices;
+    private double[] closePrices;
+    private double[] volumes;
+    private double[] amounts;
+    private long[] trades;
+
+    private int size;
+
+    public KlineColumns(int capacity) {
+        int initial = Math.max(capacity, 1);
+        this.openTimes = new long[initial];
+        this.closeTimes = new long[initial];
+        this.openPrices = new double[initial];
+        this.highPrices = new double[initial];
+        this.lowPrices = new double[initial];
+        this.closePrices = new double[initial];
+        this.volumes = new double[initial];
+        this.amounts = new double[initial];
+        this.trades = new long[initial];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public long openTime(int index) {
+        return openTimes[index];
+    }
+
+    public long closeTime(int index) {
+        return closeTimes[index];
+    }
+
+    public double openPrice(int index) {
+        return openPrices[index];
+    }
+
+    public double highPrice(int index) {
+        return highPrices[index];
+    }
+
+    public double lowPrice(int index) {
+        return lowPrices[index];
+    }
+
+    public double closePrice(int index) {
+        return closePrices[index];
+    }
+
+    public double volume(int index) {
+        return volumes[index];
+    }
+
+    public double amount(int index) {
+        return amounts[index];
+    }
+
+    public long trades(int index) {
+        return trades[index];
+    }
+
+    public void append(
+            long openTime,
+            double openPrice,
+            double highPrice,
+            double lowPrice,
+            double closePrice,
+            double volume,
+            long closeTime,
+            double amount,
+            long tradeCount
+    ) {
+        if (size == openTimes.length) grow();
+        openTimes[size] = openTime;
+        openPrices[size] = openPrice;
+        highPrices[size] = highPrice;
+        lowPrices[size] = lowPrice;
+        closePrices[size] = closePrice;
+        volumes[size] = volume;
+        closeTimes[size] = closeTime;
+        amounts[size] = amount;
+        trades[size] = tradeCount;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = openTimes.length * 2;
+        openTimes = Arrays.copyOf(openTimes, capacity);
+        closeTimes = Arrays.copyOf(closeTimes, capacity);
+        openPrices = Arrays.copyOf(openPrices, capacity);
+        highPrices = Arrays.copyOf(highPrices, capacity);
+        lowPrices = Arrays.copyOf(lowPrices, capacity);
+        closePrices = Arrays.copyOf(closePrices, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        trades = Arrays.copyOf(trades, capacity);
+    }
+}
@@ -0,0 +1,22 @@
+package com.dzenthai.cryptora.model.context;
+
+import com.dzenthai.cryptora.model.entity.Candle;
+import lombok.Builder;
+
+import java.util.List;
+
+
+/**
+ * Candles of one symbol loaded once per request and shared by the statistics and the analysis,
+ * ordered by close time.
+ */
+@Builder
+public record MarketData(
+        String symbol,
+        List<Candle> candles
+) {
+
+    public boolean isEmpty() {
+        return candles == null || candles.isEmpty();
+    }
+}
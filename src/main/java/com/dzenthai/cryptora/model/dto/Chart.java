@@ -0,0 +1,29 @@
+package com.dzenthai.cryptora.model.dto;
+
+import com.dzenthai.cryptora.model.enums.ChartMode;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+
+@Builder
+public record Chart(
+        @JsonProperty("symbol")
+        String symbol,
+        @JsonProperty("mode")
+        ChartMode mode,
+        @JsonProperty("interval")
+        Duration interval,
+        @JsonProperty("begin_time")
+        Instant beginTime,
+        @JsonProperty("end_time")
+        Instant endTime,
+        @JsonProperty("points_count")
+        int pointsCount,
+        @JsonProperty("points")
+        List<Kline> points
+) {
+}
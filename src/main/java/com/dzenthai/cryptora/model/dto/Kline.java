@@ -0,0 +1,32 @@
+package com.dzenthai.cryptora.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+
+import java.time.Instant;
+
+
+@Builder
+public record Kline(
+        @JsonProperty("symbol")
+        String symbol,
+        @JsonProperty("open_time")
+        Instant openTime,
+        @JsonProperty("close_time")
+        Instant closeTime,
+        @JsonProperty("open_price")
+        double openPrice,
+        @JsonProperty("high_price")
+        double highPrice,
+        @JsonProperty("low_price")
+        double lowPrice,
+        @JsonProperty("close_price")
+        double closePrice,
+        @JsonProperty("volume")
+        double volume,
+        @JsonProperty("amount")
+        double amount,
+        @JsonProperty("trades")
+        long trades
+) {
+}
@@ -0,0 +1,16 @@
+package com.dzenthai.cryptora.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+
+
+@Builder
+public record Percentiles(
+        @JsonProperty("price_range")
+        Quantiles priceRange,
+        @JsonProperty("volume")
+        Quantiles volume,
+        @JsonProperty("sample_count")
+        long sampleCount
+) {
+}
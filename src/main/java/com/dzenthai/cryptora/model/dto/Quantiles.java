@@ -0,0 +1,16 @@
+package com.dzenthai.cryptora.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+
+
+@Builder
+public record Quantiles(
+        @JsonProperty("p50")
+        double p50,
+        @JsonProperty("p95")
+        double p95,
+        @JsonProperty("p99")
+        double p99
+) {
+}
@@ -17,6 +17,8 @@ public record Statistic(
         Min min,
         @JsonProperty("total")
         Total total,
+        @JsonProperty("percentiles")
+        Percentiles percentiles,
         @JsonProperty("additional_information")
         Info info
 )
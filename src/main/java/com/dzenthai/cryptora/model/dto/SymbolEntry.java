@@ -0,0 +1,16 @@
+package com.dzenthai.cryptora.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+
+
+@Builder
+public record SymbolEntry(
+        @JsonProperty("id")
+        int id,
+        @JsonProperty("symbol")
+        String symbol,
+        @JsonProperty("quote_asset")
+        String quoteAsset
+) {
+}
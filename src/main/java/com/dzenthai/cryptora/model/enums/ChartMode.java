@@ -0,0 +1,14 @@
+package com.dzenthai.cryptora.model.enums;
+
+import java.util.Locale;
+
+
+public enum ChartMode {
+
+    OHLC,
+    LTTB;
+
+    public static ChartMode of(String mode) {
+        return ChartMode.valueOf(mode.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,24 @@
+package com.dzenthai.cryptora.model.enums;
+
+import java.util.Locale;
+
+
+public enum ExportFormat {
+
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    ExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static ExportFormat of(String format) {
+        return ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,31 @@
+package com.dzenthai.cryptora.model.enums;
+
+import java.time.Duration;
+
+
+public enum Rollup {
+
+    /**
+     * Continuous aggregates of the candles that outlive the raw candle retention.
+     */
+
+    HOURLY("candles_1h", Duration.ofHours(1)),
+    DAILY("candles_1d", Duration.ofDays(1));
+
+    private final String view;
+
+    private final Duration bucket;
+
+    Rollup(String view, Duration bucket) {
+        this.view = view;
+        this.bucket = bucket;
+    }
+
+    public String getView() {
+        return view;
+    }
+
+    public Duration getBucket() {
+        return bucket;
+    }
+}
@@ -0,0 +1,21 @@
+package com.dzenthai.cryptora.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("cryptora.Analysis")
+@Label("Signal Evaluation")
+@Category({"Cryptora", "Analysis"})
+@Description("Indicator calculation and signal evaluation over a bar series")
+public class AnalysisEvent extends Event {
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("Bars")
+    public int bars;
+}
@@ -0,0 +1,21 @@
+package com.dzenthai.cryptora.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("cryptora.Fetch")
+@Label("Binance Fetch")
+@Category({"Cryptora", "Fetch"})
+@Description("Request for the klines of a symbol to Binance")
+public class FetchEvent extends Event {
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("Rows")
+    public int rows;
+}
@@ -0,0 +1,106 @@
+package com.dzenthai.cryptora.monitoring;
+
+import com.dzenthai.cryptora.util.Durations;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.Access;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+
+
+@Slf4j
+@Component
+@Endpoint(id = "jfr", defaultAccess = Access.NONE)
+public class JfrEndpoint {
+
+    /**
+     * Controls one Flight Recorder recording: POST starts it with the {@code default} or {@code profile} settings,
+     * GET dumps what has been recorded so far as a .jfr file, DELETE stops and discards it. The cryptora events
+     * are enabled in either settings, outside a recording they cost next to nothing. A dump exposes internals
+     * and recording costs CPU, so the endpoint is off unless access is granted explicitly.
+     */
+
+    private static final String RECORDING_NAME = "cryptora";
+
+    private static final String DEFAULT_SETTINGS = "default";
+
+    private static final String DEFAULT_MAX_AGE = "30m";
+
+    private Recording recording;
+
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable String settings, @Nullable String maxAge) {
+        String settingsName = settings == null ? DEFAULT_SETTINGS : settings;
+        // Parsed first, so an invalid value leaves a running recording alone.
+        Duration recordingMaxAge = Durations.parse(maxAge == null ? DEFAULT_MAX_AGE : maxAge);
+        if (recording != null) {
+            recording.close();
+        }
+        try {
+            recording = new Recording(Configuration.getConfiguration(settingsName));
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown recording settings: %s".formatted(settingsName), e);
+        }
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(recordingMaxAge);
+        recording.start();
+        log.info("JfrEndpoint | Recording started, settings: {}, max age: {}", settingsName, recording.getMaxAge());
+        return getStatus();
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> dump() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            Path file = Files.createTempFile("cryptora-", ".jfr");
+            file.toFile().deleteOnExit();
+            recording.dump(file);
+            log.info("JfrEndpoint | Recording dumped, file: {}, size: {}", file, Files.size(file));
+            return new WebEndpointResponse<>(new FileSystemResource(file), WebEndpointResponse.STATUS_OK);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording != null) {
+            recording.close();
+            log.info("JfrEndpoint | Recording stopped");
+        }
+        Map<String, Object> status = getStatus();
+        recording = null;
+        return status;
+    }
+
+    private Map<String, Object> getStatus() {
+        if (recording == null) {
+            return Map.of("state", RecordingState.CLOSED);
+        }
+        return Map.of(
+                "state", recording.getState(),
+                "startTime", String.valueOf(recording.getStartTime()),
+                "maxAge", String.valueOf(recording.getMaxAge())
+        );
+    }
+}
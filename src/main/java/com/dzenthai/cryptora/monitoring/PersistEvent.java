@@ -0,0 +1,24 @@
+package com.dzenthai.cryptora.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("cryptora.Persist")
+@Label("Candle Persist")
+@Category({"Cryptora", "Repository"})
+@Description("Batch insert of candles")
+public class PersistEvent extends Event {
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Inserted")
+    public int inserted;
+}
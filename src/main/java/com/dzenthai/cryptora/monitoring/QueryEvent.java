@@ -0,0 +1,24 @@
+package com.dzenthai.cryptora.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("cryptora.Query")
+@Label("Candle Query")
+@Category({"Cryptora", "Repository"})
+@Description("Candle read from the repository, including row mapping")
+public class QueryEvent extends Event {
+
+    @Label("Query")
+    public String query;
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("Rows")
+    public int rows;
+}
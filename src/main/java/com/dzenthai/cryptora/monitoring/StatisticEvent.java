@@ -0,0 +1,24 @@
+package com.dzenthai.cryptora.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("cryptora.Statistic")
+@Label("Statistic Report")
+@Category({"Cryptora", "Analysis"})
+@Description("Statistic report calculation from loaded market data")
+public class StatisticEvent extends Event {
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("Duration")
+    public String duration;
+
+    @Label("Rows")
+    public int rows;
+}
@@ -0,0 +1,289 @@
+package com.dzenthai.cryptora.repository;
+
+import com.dzenthai.cryptora.model.entity.Candle;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+final class CandleColumnFile {
+
+    /**
+     * One symbol's candles as fixed-capacity columns in a memory-mapped file: a header, one column per field
+     * (times and trades as longs, prices and volumes as doubles) and a footer holding the row count. Rows are
+     * appended in close time order and the footer is written last, so a torn append is never visible and a
+     * reader that took the count once can read its rows without locking while a single writer appends.
+     * A full file is compacted, and a stale one rebuilt, into a new file that replaces it, so readers of the
+     * old mapping keep a consistent view. Readers retain a mapping while they read it; the mapping is released
+     * as soon as it is replaced and its last reader is done, instead of whenever it is garbage collected.
+     */
+
+    private static final int MAGIC = 0x4352434C;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 16;
+
+    private static final int FOOTER_BYTES = 16;
+
+    private static final int OPEN_TIME = 0;
+    private static final int CLOSE_TIME = 1;
+    private static final int OPEN_PRICE = 2;
+    private static final int HIGH_PRICE = 3;
+    private static final int LOW_PRICE = 4;
+    private static final int CLOSE_PRICE = 5;
+    private static final int VOLUME = 6;
+    private static final int AMOUNT = 7;
+    private static final int TRADES = 8;
+    private static final int COLUMNS = 9;
+
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    private final Path path;
+
+    private final String symbol;
+
+    private final int capacity;
+
+    private final MappedByteBuffer buffer;
+
+    private volatile int count;
+
+    private volatile boolean complete;
+
+    // The owner's reference plus one per reader, the mapping is released when it drops to zero.
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private CandleColumnFile(Path path, String symbol, int capacity, MappedByteBuffer buffer) {
+        this.path = path;
+        this.symbol = symbol;
+        this.capacity = capacity;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps the file of a symbol, creating it empty when it is missing or was written with another layout.
+     */
+    static CandleColumnFile open(Path path, String symbol, int capacity) throws IOException {
+        long size = HEADER_BYTES + (long) COLUMNS * Long.BYTES * capacity + FOOTER_BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity does not fit one mapping: " + capacity);
+        }
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean reset = channel.size() != size;
+            if (reset) {
+                channel.truncate(0);
+            }
+            var file = new CandleColumnFile(path, symbol, capacity, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            int footer = file.footerOffset();
+            if (reset
+                    || file.buffer.getInt(0) != MAGIC
+                    || file.buffer.getInt(4) != VERSION
+                    || file.buffer.getInt(8) != capacity
+                    || file.buffer.getInt(footer + 8) != MAGIC) {
+                file.buffer.putInt(0, MAGIC);
+                file.buffer.putInt(4, VERSION);
+                file.buffer.putInt(8, capacity);
+                file.writeFooter(0, false);
+            } else {
+                file.count = Math.clamp(file.buffer.getInt(footer), 0, capacity);
+                file.complete = file.buffer.getInt(footer + 4) != 0;
+            }
+            return file;
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Whether the file holds every stored candle of the symbol, not just the newest ones.
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    long closeTime(int row) {
+        return buffer.getLong(offset(CLOSE_TIME, row));
+    }
+
+    long lastCloseTime() {
+        int rows = count;
+        return rows == 0 ? Long.MIN_VALUE : closeTime(rows - 1);
+    }
+
+    /**
+     * Index of the first of the {@code rows} rows closing at or after {@code closeTime}.
+     */
+    int lowerBound(long closeTime, int rows) {
+        int low = 0;
+        int high = rows;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (closeTime(mid) < closeTime) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    Candle get(int row) {
+        return Candle.builder()
+                .symbol(symbol)
+                .openTime(Instant.ofEpochMilli(buffer.getLong(offset(OPEN_TIME, row))))
+                .closeTime(Instant.ofEpochMilli(buffer.getLong(offset(CLOSE_TIME, row))))
+                .openPrice(buffer.getDouble(offset(OPEN_PRICE, row)))
+                .highPrice(buffer.getDouble(offset(HIGH_PRICE, row)))
+                .lowPrice(buffer.getDouble(offset(LOW_PRICE, row)))
+                .closePrice(buffer.getDouble(offset(CLOSE_PRICE, row)))
+                .volume(buffer.getDouble(offset(VOLUME, row)))
+                .amount(buffer.getDouble(offset(AMOUNT, row)))
+                .trades(buffer.getLong(offset(TRADES, row)))
+                .build();
+    }
+
+    /**
+     * Appends a candle closing after the newest row, returns false when the file is full.
+     */
+    boolean append(Candle candle) {
+        int row = count;
+        if (row == capacity) return false;
+        buffer.putLong(offset(OPEN_TIME, row), candle.getOpenTime().toEpochMilli());
+        buffer.putLong(offset(CLOSE_TIME, row), candle.getCloseTime().toEpochMilli());
+        buffer.putDouble(offset(OPEN_PRICE, row), candle.getOpenPrice());
+        buffer.putDouble(offset(HIGH_PRICE, row), candle.getHighPrice());
+        buffer.putDouble(offset(LOW_PRICE, row), candle.getLowPrice());
+        buffer.putDouble(offset(CLOSE_PRICE, row), candle.getClosePrice());
+        buffer.putDouble(offset(VOLUME, row), candle.getVolume());
+        buffer.putDouble(offset(AMOUNT, row), candle.getAmount());
+        buffer.putLong(offset(TRADES, row), candle.getTrades());
+        writeFooter(row + 1, complete);
+        return true;
+    }
+
+    /**
+     * Writes the newest {@code keep} rows to a new file, moves it over this one and maps it. The result no
+     * longer holds the oldest candles, so it is never complete.
+     */
+    CandleColumnFile compact(int keep) throws IOException {
+        CandleColumnFile compacted = openReplacement();
+        int rows = count;
+        int from = Math.max(0, rows - keep);
+        for (int column = 0; column < COLUMNS; column++) {
+            compacted.buffer.put(compacted.offset(column, 0), buffer, offset(column, from), (rows - from) * Long.BYTES);
+        }
+        compacted.writeFooter(rows - from, false);
+        return moveOver(compacted);
+    }
+
+    /**
+     * Writes {@code candles}, ordered by close time and at most the capacity, to a new file, moves it over this
+     * one and maps it.
+     */
+    CandleColumnFile rebuild(List<Candle> candles, boolean complete) throws IOException {
+        CandleColumnFile rebuilt = openReplacement();
+        for (Candle candle : candles) {
+            if (!rebuilt.append(candle)) break;
+        }
+        rebuilt.writeFooter(rebuilt.count, complete);
+        return moveOver(rebuilt);
+    }
+
+    /**
+     * Takes a reader's reference, returns false when the mapping was already released.
+     */
+    boolean retain() {
+        int current;
+        do {
+            current = references.get();
+            if (current == 0) return false;
+        } while (!references.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Drops a reader's reference, or the owner's once the file has been replaced.
+     */
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            unmap();
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    private CandleColumnFile openReplacement() throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        return open(temporary, symbol, capacity);
+    }
+
+    private CandleColumnFile moveOver(CandleColumnFile replacement) throws IOException {
+        replacement.force();
+        Files.move(replacement.path, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // The mapping follows the file across the move.
+        var moved = new CandleColumnFile(path, symbol, capacity, replacement.buffer);
+        moved.complete = replacement.complete;
+        moved.count = replacement.count;
+        return moved;
+    }
+
+    private void unmap() {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invokeExact((ByteBuffer) buffer);
+        } catch (Throwable e) {
+            // Left to the garbage collector.
+        }
+    }
+
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void writeFooter(int rows, boolean complete) {
+        int footer = footerOffset();
+        buffer.putInt(footer + 4, complete ? 1 : 0);
+        buffer.putInt(footer + 8, MAGIC);
+        buffer.putInt(footer, rows);
+        this.complete = complete;
+        // Publishing the count last makes the column writes above visible to readers that read it.
+        this.count = rows;
+    }
+
+    private int offset(int column, int row) {
+        return HEADER_BYTES + (column * capacity + row) * Long.BYTES;
+    }
+
+    private int footerOffset() {
+        return HEADER_BYTES + COLUMNS * capacity * Long.BYTES;
+    }
+}
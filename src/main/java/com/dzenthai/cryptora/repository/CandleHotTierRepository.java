@@ -0,0 +1,289 @@
+package com.dzenthai.cryptora.repository;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.model.context.CandleAggregate;
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.model.enums.Rollup;
+import com.dzenthai.cryptora.service.SymbolRegistry;
+import com.dzenthai.cryptora.util.Workloads;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+
+@Slf4j
+@Primary
+@Repository
+@Profile("!load-test & !replay")
+public class CandleHotTierRepository implements CandleRepository {
+
+    /**
+     * Serves recent candles from memory-mapped column files in front of TimescaleDB, which stays the durable
+     * source of truth: writes go to the database first and are then appended locally. A symbol's file is
+     * synchronised on first use, by reading what the database stored after its newest row, or rebuilt when
+     * the database is behind it. Windows and cursors the file covers are read straight from the columns,
+     * anything older, bucket aggregates and full scans go to the database. Every write must pass through this
+     * node, so the tier is not used with clustering enabled. Both switches are read when the repository is
+     * created rather than by a bean condition, so they also apply to an AOT-processed build; while the tier is
+     * off every call goes to the database.
+     */
+
+    private final CandleTimescaleRepository timescale;
+
+    private final SymbolRegistry symbolRegistry;
+
+    private final Path directory;
+
+    private final int capacity;
+
+    private final boolean enabled;
+
+    private final Map<String, Tier> tiers = new ConcurrentHashMap<>();
+
+    public CandleHotTierRepository(
+            CryptoraProperties cryptoraProperties,
+            CandleTimescaleRepository timescale,
+            SymbolRegistry symbolRegistry
+    ) throws IOException {
+        this.timescale = timescale;
+        this.symbolRegistry = symbolRegistry;
+        this.capacity = cryptoraProperties.hotTier().capacity();
+        this.enabled = cryptoraProperties.hotTier().enabled() && !cryptoraProperties.cluster().enabled();
+        this.directory = enabled
+                ? Files.createDirectories(Path.of(cryptoraProperties.hotTier().path()))
+                : null;
+    }
+
+    @Override
+    public List<Candle> findAll() {
+        return timescale.findAll();
+    }
+
+    @Override
+    public List<Candle> findBySymbolIgnoreCase(String symbol) {
+        return timescale.findBySymbolIgnoreCase(symbol);
+    }
+
+    @Override
+    public List<Candle> findWindowBySymbol(String symbol, Duration window, int minBars) {
+        CandleColumnFile file = acquire(symbol);
+        if (file == null) return timescale.findWindowBySymbol(symbol, window, minBars);
+        try {
+            return findWindow(file, symbol, window, minBars);
+        } finally {
+            file.release();
+        }
+    }
+
+    private List<Candle> findWindow(CandleColumnFile file, String symbol, Duration window, int minBars) {
+        int rows = file.size();
+        if (rows == 0) {
+            return file.isComplete() ? List.of() : timescale.findWindowBySymbol(symbol, window, minBars);
+        }
+        int windowStart = file.lowerBound(file.closeTime(rows - 1) - window.toMillis(), rows);
+        // Rows older than the file may still fall in the window or be needed for the minimum bars.
+        if (!file.isComplete() && (windowStart == 0 || rows < minBars)) {
+            log.debug("CandleHotTierRepository | Window not covered, Symbol: {}, Window: {}, Min bars: {}",
+                    symbol, window, minBars);
+            return timescale.findWindowBySymbol(symbol, window, minBars);
+        }
+        int start = Math.min(windowStart, Math.max(0, rows - minBars));
+        List<Candle> candles = new ArrayList<>(rows - start);
+        for (int row = start; row < rows; row++) {
+            candles.add(file.get(row));
+        }
+        return candles;
+    }
+
+    @Override
+    public List<Candle> findBucketsBySymbol(String symbol, Duration bucket, Instant from, Instant to) {
+        return timescale.findBucketsBySymbol(symbol, bucket, from, to);
+    }
+
+    @Override
+    public List<Candle> findRollupWindowBySymbol(String symbol, Rollup rollup, Duration window) {
+        return timescale.findRollupWindowBySymbol(symbol, rollup, window);
+    }
+
+    @Override
+    public CandleAggregate aggregateWindowBySymbol(String symbol, Duration window) {
+        return timescale.aggregateWindowBySymbol(symbol, window);
+    }
+
+    @Override
+    public Map<String, Integer> saveAll(List<Candle> candles) {
+        Map<String, Integer> inserted = timescale.saveAll(candles);
+        Map<String, List<Candle>> bySymbol = candles.stream()
+                .collect(Collectors.groupingBy(candle -> candle.getSymbol().toUpperCase(Locale.ROOT)));
+        bySymbol.forEach((symbol, symbolCandles) -> {
+            Tier tier = tiers.get(symbol);
+            if (tier == null) return;
+            synchronized (tier) {
+                // A symbol that is not synchronised yet catches up from the database on first use.
+                if (!tier.synced) return;
+                try {
+                    symbolCandles.stream()
+                            .sorted(Comparator.comparing(Candle::getCloseTime))
+                            .forEach(candle -> append(tier, candle));
+                } catch (UncheckedIOException e) {
+                    log.warn("CandleHotTierRepository | Unable to append, resynchronising, Symbol: {}", symbol, e);
+                    tier.synced = false;
+                }
+            }
+        });
+        return inserted;
+    }
+
+    @Override
+    public void streamBySymbol(String symbol, Instant after, Instant to, int limit, Consumer<Candle> consumer) {
+        CandleColumnFile file = acquire(symbol);
+        if (file == null) {
+            timescale.streamBySymbol(symbol, after, to, limit, consumer);
+            return;
+        }
+        try {
+            int rows = file.size();
+            boolean covered = file.isComplete()
+                    || rows > 0 && after != null && after.toEpochMilli() >= file.closeTime(0);
+            if (!covered) {
+                timescale.streamBySymbol(symbol, after, to, limit, consumer);
+                return;
+            }
+
+            int row = after == null ? 0 : file.lowerBound(after.toEpochMilli() + 1, rows);
+            long toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+            int remaining = limit > 0 ? limit : Integer.MAX_VALUE;
+            for (; row < rows && remaining > 0 && file.closeTime(row) <= toMillis; row++, remaining--) {
+                consumer.accept(file.get(row));
+            }
+        } finally {
+            file.release();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        tiers.values().forEach(tier -> {
+            synchronized (tier) {
+                if (tier.file != null) tier.file.force();
+            }
+        });
+    }
+
+    /**
+     * Returns the current file of a symbol retained for reading, to be released by the caller, or null when
+     * the symbol is not served from the hot tier.
+     */
+    private CandleColumnFile acquire(String symbol) {
+        Tier tier = getTier(symbol);
+        if (tier == null) return null;
+        while (true) {
+            CandleColumnFile file = tier.file;
+            if (file == null) return null;
+            if (file.retain()) return file;
+            // Replaced and released since it was read, the field already holds its replacement.
+        }
+    }
+
+    private Tier getTier(String symbol) {
+        String key = symbol.toUpperCase(Locale.ROOT);
+        // Only symbols of the universe get a file, whatever a request asks for.
+        if (!enabled || !symbolRegistry.contains(key)) return null;
+        Tier tier = tiers.computeIfAbsent(key, Tier::new);
+        if (!tier.synced) {
+            synchronized (tier) {
+                if (!tier.synced) {
+                    try {
+                        sync(tier);
+                    } catch (IOException | UncheckedIOException e) {
+                        log.warn("CandleHotTierRepository | Unable to open hot tier, reading from the database, " +
+                                "Symbol: {}", tier.symbol, e);
+                        return null;
+                    }
+                }
+            }
+        }
+        return tier;
+    }
+
+    private void sync(Tier tier) throws IOException {
+        if (tier.file == null) {
+            tier.file = CandleColumnFile.open(directory.resolve(tier.symbol + ".col"), tier.symbol, capacity);
+        }
+        CandleColumnFile file = tier.file;
+        // Synchronising may stream the whole capacity, so it reads as analysis work whoever triggered it.
+        List<Candle> latest = Workloads.analysis(() -> timescale.findWindowBySymbol(tier.symbol, Duration.ZERO, 1));
+
+        // A stale file is rebuilt into a new one rather than rewritten, readers of the old one keep a whole series.
+        if (latest.isEmpty()) {
+            if (file.size() > 0 || !file.isComplete()) {
+                replace(tier, file.rebuild(List.of(), true));
+            }
+        } else if (file.size() == 0 || file.lastCloseTime() > latest.getLast().getCloseTime().toEpochMilli()) {
+            List<Candle> recent = Workloads.analysis(() ->
+                    timescale.findWindowBySymbol(tier.symbol, Duration.ZERO, capacity));
+            replace(tier, file.rebuild(recent, recent.size() < capacity));
+        } else {
+            Workloads.analysis(() -> timescale.streamBySymbol(tier.symbol, Instant.ofEpochMilli(file.lastCloseTime()),
+                    null, 0, candle -> append(tier, candle)));
+        }
+        tier.synced = true;
+        log.info("CandleHotTierRepository | Synchronised hot tier, Symbol: {}, Rows: {}, Complete: {}",
+                tier.symbol, tier.file.size(), tier.file.isComplete());
+    }
+
+    private void append(Tier tier, Candle candle) {
+        CandleColumnFile file = tier.file;
+        if (candle.getCloseTime().toEpochMilli() <= file.lastCloseTime()) return;
+        if (!file.append(candle)) {
+            try {
+                replace(tier, file.compact(capacity / 2));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            log.debug("CandleHotTierRepository | Compacted hot tier, Symbol: {}, Rows: {}",
+                    tier.symbol, tier.file.size());
+            tier.file.append(candle);
+        }
+    }
+
+    /**
+     * Publishes the replacement of a tier's file, then drops the tier's reference to the old one, whose
+     * mapping is released once the readers still holding it are done.
+     */
+    private void replace(Tier tier, CandleColumnFile replacement) {
+        CandleColumnFile replaced = tier.file;
+        tier.file = replacement;
+        replaced.release();
+    }
+
+    private static final class Tier {
+
+        private final String symbol;
+
+        private volatile CandleColumnFile file;
+
+        private volatile boolean synced;
+
+        private Tier(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.dzenthai.cryptora.repository;
+
+import com.dzenthai.cryptora.model.context.CandleAggregate;
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.model.enums.Rollup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+
+@Slf4j
+@Repository
+@Profile({"load-test", "replay"})
+public class CandleMemoryRepository implements CandleRepository {
+
+    /**
+     * Keeps every symbol's candles in a skip list keyed by close time, so that windows and cursors are
+     * range views over the index rather than scans. Nothing is evicted: the heap bounds the data set.
+     */
+
+    private final Map<String, ConcurrentSkipListMap<Instant, Candle>> candles = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Candle> findAll() {
+        log.debug("CandleMemoryRepository | Finding all candles");
+        return candles.values().stream()
+                .flatMap(series -> series.values().stream())
+                .sorted(Comparator.comparing(Candle::getCloseTime))
+                .toList();
+    }
+
+    @Override
+    public List<Candle> findBySymbolIgnoreCase(String symbol) {
+        log.debug("CandleMemoryRepository | Finding candles by symbol, Symbol: {}", symbol);
+        return new ArrayList<>(getSeries(symbol).values());
+    }
+
+    @Override
+    public List<Candle> findWindowBySymbol(String symbol, Duration window, int minBars) {
+        log.debug("CandleMemoryRepository | Finding candle window, Symbol: {}, Window: {}, Min bars: {}",
+                symbol, window, minBars);
+        ConcurrentSkipListMap<Instant, Candle> series = getSeries(symbol);
+        if (series.isEmpty()) return List.of();
+
+        Instant from = series.lastKey().minus(window);
+        Iterator<Instant> descending = series.descendingKeySet().iterator();
+        for (int i = 0; i < minBars && descending.hasNext(); i++) {
+            Instant closeTime = descending.next();
+            if (closeTime.isBefore(from)) {
+                from = closeTime;
+            }
+        }
+        return new ArrayList<>(series.tailMap(from, true).values());
+    }
+
+    @Override
+    public List<Candle> findBucketsBySymbol(String symbol, Duration bucket, Instant from, Instant to) {
+        log.debug("CandleMemoryRepository | Finding candle buckets, Symbol: {}, Bucket: {}, From: {}, To: {}",
+                symbol, bucket, from, to);
+        long bucketMillis = bucket.toMillis();
+        Map<Long, Candle> buckets = new LinkedHashMap<>();
+        for (Candle candle : getSeries(symbol).subMap(from, true, to, true).values()) {
+            long key = Math.floorDiv(candle.getOpenTime().toEpochMilli(), bucketMillis);
+            buckets.merge(key, copy(candle), CandleMemoryRepository::merge);
+        }
+        return buckets.values().stream()
+                .sorted(Comparator.comparing(Candle::getCloseTime))
+                .toList();
+    }
+
+    @Override
+    public List<Candle> findRollupWindowBySymbol(String symbol, Rollup rollup, Duration window) {
+        log.debug("CandleMemoryRepository | Finding rollup window, Symbol: {}, Rollup: {}, Window: {}",
+                symbol, rollup, window);
+        // Nothing is evicted here, so rollups are the buckets of the raw candles.
+        ConcurrentSkipListMap<Instant, Candle> series = getSeries(symbol);
+        if (series.isEmpty()) return List.of();
+
+        Instant to = series.lastKey();
+        Instant from = to.minus(window);
+        return findBucketsBySymbol(symbol, rollup.getBucket(), from.minus(rollup.getBucket()), to).stream()
+                .filter(bucket -> !bucket.getCloseTime().isBefore(from))
+                .toList();
+    }
+
+    @Override
+    public CandleAggregate aggregateWindowBySymbol(String symbol, Duration window) {
+        log.debug("CandleMemoryRepository | Aggregating candle window, Symbol: {}, Window: {}", symbol, window);
+        ConcurrentSkipListMap<Instant, Candle> series = getSeries(symbol);
+        if (series.isEmpty()) return CandleAggregate.builder().build();
+
+        var candles = series.tailMap(series.lastKey().minus(window), true).values();
+        int entries = candles.size();
+        return CandleAggregate.builder()
+                .entries(entries)
+                .firstOpenTime(candles.stream().map(Candle::getOpenTime).min(Comparator.naturalOrder()).orElseThrow())
+                .lastCloseTime(series.lastKey())
+                .avgOpenPrice(sum(candles, Candle::getOpenPrice) / entries)
+                .avgClosePrice(sum(candles, Candle::getClosePrice) / entries)
+                .avgHighPrice(sum(candles, Candle::getHighPrice) / entries)
+                .avgLowPrice(sum(candles, Candle::getLowPrice) / entries)
+                .avgPriceRange(sum(candles, CandleMemoryRepository::priceRange) / entries)
+                .maxOpenPrice(max(candles, Candle::getOpenPrice))
+                .maxClosePrice(max(candles, Candle::getClosePrice))
+                .maxHighPrice(max(candles, Candle::getHighPrice))
+                .maxLowPrice(max(candles, Candle::getLowPrice))
+                .maxPriceRange(max(candles, CandleMemoryRepository::priceRange))
+                .maxVolume(max(candles, Candle::getVolume))
+                .maxAmount(max(candles, Candle::getAmount))
+                .minOpenPrice(min(candles, Candle::getOpenPrice))
+                .minClosePrice(min(candles, Candle::getClosePrice))
+                .minHighPrice(min(candles, Candle::getHighPrice))
+                .minLowPrice(min(candles, Candle::getLowPrice))
+                .minPriceRange(min(candles, CandleMemoryRepository::priceRange))
+                .minVolume(min(candles, Candle::getVolume))
+                .minAmount(min(candles, Candle::getAmount))
+                .totalVolume(sum(candles, Candle::getVolume))
+                .totalAmount(sum(candles, Candle::getAmount))
+                .weightedPriceSum(sum(candles, candle ->
+                        (candle.getHighPrice() + candle.getLowPrice() + candle.getClosePrice()) / 3 * candle.getVolume()))
+                .build();
+    }
+
+    @Override
+    public Map<String, Integer> saveAll(List<Candle> toSave) {
+        Map<String, Integer> inserted = new HashMap<>();
+        for (Candle candle : toSave) {
+            boolean added = getSeries(candle.getSymbol()).putIfAbsent(candle.getCloseTime(), candle) == null;
+            inserted.merge(candle.getSymbol(), added ? 1 : 0, Integer::sum);
+        }
+        log.debug("CandleMemoryRepository | Saving Candles, Count: {}, Inserted: {}", toSave.size(), inserted);
+        return inserted;
+    }
+
+    @Override
+    public void streamBySymbol(String symbol, Instant after, Instant to, int limit, Consumer<Candle> consumer) {
+        log.debug("CandleMemoryRepository | Streaming candles, Symbol: {}, After: {}, To: {}, Limit: {}",
+                symbol, after, to, limit);
+        NavigableMap<Instant, Candle> range = getSeries(symbol);
+        if (after != null) range = range.tailMap(after, false);
+        if (to != null) range = range.headMap(to, true);
+
+        int remaining = limit > 0 ? limit : Integer.MAX_VALUE;
+        for (Candle candle : range.values()) {
+            if (remaining-- == 0) return;
+            consumer.accept(candle);
+        }
+    }
+
+    private static double priceRange(Candle candle) {
+        return candle.getHighPrice() - candle.getLowPrice();
+    }
+
+    private static double sum(Collection<Candle> candles, ToDoubleFunction<Candle> field) {
+        return candles.stream().mapToDouble(field).sum();
+    }
+
+    private static double max(Collection<Candle> candles, ToDoubleFunction<Candle> field) {
+        return candles.stream().mapToDouble(field).max().orElse(0.0);
+    }
+
+    private static double min(Collection<Candle> candles, ToDoubleFunction<Candle> field) {
+        return candles.stream().mapToDouble(field).min().orElse(0.0);
+    }
+
+    private ConcurrentSkipListMap<Instant, Candle> getSeries(String symbol) {
+        return candles.computeIfAbsent(symbol.toUpperCase(Locale.ROOT), key -> new ConcurrentSkipListMap<>());
+    }
+
+    private static Candle copy(Candle candle) {
+        return Candle.builder()
+                .symbol(candle.getSymbol())
+                .openTime(candle.getOpenTime())
+                .closeTime(candle.getCloseTime())
+                .openPrice(candle.getOpenPrice())
+                .closePrice(candle.getClosePrice())
+                .highPrice(candle.getHighPrice())
+                .lowPrice(candle.getLowPrice())
+                .volume(candle.getVolume())
+                .amount(candle.getAmount())
+                .trades(candle.getTrades())
+                .build();
+    }
+
+    private static Candle merge(Candle bucket, Candle candle) {
+        // Candles arrive in close time order, so the bucket keeps its open and takes the later close.
+        bucket.setCloseTime(candle.getCloseTime());
+        bucket.setClosePrice(candle.getClosePrice());
+        bucket.setHighPrice(Math.max(bucket.getHighPrice(), candle.getHighPrice()));
+        bucket.setLowPrice(Math.min(bucket.getLowPrice(), candle.getLowPrice()));
+        bucket.setVolume(bucket.getVolume() + candle.getVolume());
+        bucket.setAmount(bucket.getAmount() + candle.getAmount());
+        bucket.setTrades(bucket.getTrades() + candle.getTrades());
+        return bucket;
+    }
+}
@@ -0,0 +1,112 @@
+package com.dzenthai.cryptora.repository;
+
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.model.enums.Rollup;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+
+
+@Slf4j
+@Repository
+@Profile("reactive")
+public class CandleR2dbcRepository implements ReactiveCandleRepository {
+
+    private final DatabaseClient client;
+
+    public CandleR2dbcRepository(ConnectionFactory connectionFactory) {
+        this.client = DatabaseClient.create(connectionFactory);
+    }
+
+    @Override
+    public Flux<Candle> findBySymbol(String symbol) {
+        log.debug("CandleR2dbcRepository | Finding candles by symbol, Symbol: {}", symbol);
+        var sql = """
+                SELECT * FROM public.candles
+                WHERE symbol = :symbol
+                ORDER BY close_time
+                """;
+        return client.sql(sql)
+                .bind("symbol", symbol)
+                .map(this::mapRow)
+                .all();
+    }
+
+    @Override
+    public Flux<Candle> findWindowBySymbol(String symbol, Duration window, int minBars) {
+        log.debug("CandleR2dbcRepository | Finding candle window, Symbol: {}, Window: {}, Min bars: {}",
+                symbol, window, minBars);
+        var sql = """
+                WITH latest AS (
+                    SELECT max(close_time) AS close_time
+                    FROM public.candles
+                    WHERE symbol = :symbol
+                ), tail AS (
+                    SELECT close_time
+                    FROM public.candles
+                    WHERE symbol = :symbol
+                    ORDER BY close_time DESC
+                    OFFSET :offset LIMIT 1
+                )
+                SELECT * FROM public.candles
+                WHERE symbol = :symbol
+                  AND close_time >= LEAST(
+                        (SELECT close_time FROM latest) - make_interval(secs => :seconds),
+                        COALESCE((SELECT close_time FROM tail), '-infinity'::timestamptz)
+                  )
+                ORDER BY close_time
+                """;
+        return client.sql(sql)
+                .bind("symbol", symbol)
+                .bind("offset", Math.max(0, minBars - 1))
+                .bind("seconds", (double) window.toSeconds())
+                .map(this::mapRow)
+                .all();
+    }
+
+    @Override
+    public Flux<Candle> findRollupWindowBySymbol(String symbol, Rollup rollup, Duration window) {
+        log.debug("CandleR2dbcRepository | Finding rollup window, Symbol: {}, Rollup: {}, Window: {}",
+                symbol, rollup, window);
+        var sql = """
+                SELECT symbol, open_time, close_time, open_price, high_price, low_price, close_price,
+                       volume, amount, trades
+                FROM public.%1$s
+                WHERE symbol = :symbol
+                  AND close_time >= (SELECT max(close_time) FROM public.%1$s WHERE symbol = :symbol)
+                                    - make_interval(secs => :seconds)
+                ORDER BY close_time
+                """.formatted(rollup.getView());
+        return client.sql(sql)
+                .bind("symbol", symbol)
+                .bind("seconds", (double) window.toSeconds())
+                .map(this::mapRow)
+                .all();
+    }
+
+    private Candle mapRow(Readable row) {
+        return Candle.builder()
+                .symbol(row.get("symbol", String.class))
+                .openTime(row.get("open_time", Instant.class))
+                .closeTime(row.get("close_time", Instant.class))
+                .openPrice(toDouble(row.get("open_price", Double.class)))
+                .closePrice(toDouble(row.get("close_price", Double.class)))
+                .highPrice(toDouble(row.get("high_price", Double.class)))
+                .lowPrice(toDouble(row.get("low_price", Double.class)))
+                .volume(toDouble(row.get("volume", Double.class)))
+                .amount(toDouble(row.get("amount", Double.class)))
+                .trades(row.get("trades", Long.class) != null ? row.get("trades", Long.class) : 0L)
+                .build();
+    }
+
+    private double toDouble(Double value) {
+        return value != null ? value : 0.0;
+    }
+}
@@ -1,8 +1,14 @@
 package com.dzenthai.cryptora.repository;
 
+import com.dzenthai.cryptora.model.context.CandleAggregate;
 import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.model.enums.Rollup;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 
 public interface CandleRepository {
@@ -11,6 +17,40 @@ public interface CandleRepository {
 
     List<Candle> findBySymbolIgnoreCase(String symbol);
 
-    void saveAll(List<Candle> candles);
+    /**
+     * Finds the candles of a symbol closing within {@code window} of its latest close time, extended back
+     * so that at least the latest {@code minBars} candles are included, ordered by close time.
+     */
+    List<Candle> findWindowBySymbol(String symbol, Duration window, int minBars);
+
+    /**
+     * Aggregates candles of a symbol into fixed-width time buckets, keeping the first open and last close
+     * of each bucket, ordered by close time.
+     */
+    List<Candle> findBucketsBySymbol(String symbol, Duration bucket, Instant from, Instant to);
+
+    /**
+     * Finds the rollups of a symbol closing within {@code window} of its latest rollup, ordered by close time.
+     * Rollups outlive the raw candle retention.
+     */
+    List<Candle> findRollupWindowBySymbol(String symbol, Rollup rollup, Duration window);
+
+    /**
+     * Aggregates the candles of a symbol closing within {@code window} of its latest close time, so that
+     * a single row is read whatever the size of the window.
+     */
+    CandleAggregate aggregateWindowBySymbol(String symbol, Duration window);
+
+    /**
+     * Inserts candles of one or more symbols in one write, skipping those already stored, and returns the
+     * number of rows inserted per symbol, including symbols with none inserted.
+     */
+    Map<String, Integer> saveAll(List<Candle> candles);
+
+    /**
+     * Streams candles of a symbol ordered by close time, strictly after {@code after} and up to {@code to}
+     * inclusive, without materializing the result. Null bounds are open, a non-positive limit means no limit.
+     */
+    void streamBySymbol(String symbol, Instant after, Instant to, int limit, Consumer<Candle> consumer);
 }
 
@@ -1,27 +1,77 @@
 package com.dzenthai.cryptora.repository;
 
+import com.dzenthai.cryptora.model.context.CandleAggregate;
 import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.model.enums.Rollup;
+import com.dzenthai.cryptora.monitoring.PersistEvent;
+import com.dzenthai.cryptora.monitoring.QueryEvent;
+import com.dzenthai.cryptora.util.Bulkhead;
+import com.dzenthai.cryptora.util.Workloads;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 
 @Slf4j
 @Repository
+@Profile("!load-test & !replay")
 public class CandleTimescaleRepository implements CandleRepository {
 
+    /**
+     * Writes run on the ingestion pool, reads on the analysis pool when made by analysis work and on the
+     * report pool otherwise, each behind its workload's bulkhead, which is taken before a connection or a
+     * transaction is.
+     */
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
     private final JdbcTemplate jdbc;
 
-    public CandleTimescaleRepository(JdbcTemplate jdbc) {
+    private final TransactionTemplate transactions;
+
+    private final Bulkhead ingestionBulkhead;
+
+    private final Reader reportReader;
+
+    private final Reader analysisReader;
+
+    public CandleTimescaleRepository(
+            JdbcTemplate jdbc,
+            @Qualifier("reportJdbcTemplate") JdbcTemplate reportJdbc,
+            @Qualifier("analysisJdbcTemplate") JdbcTemplate analysisJdbc,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("reportTransactionManager") PlatformTransactionManager reportTransactionManager,
+            @Qualifier("analysisTransactionManager") PlatformTransactionManager analysisTransactionManager,
+            @Qualifier("ingestionBulkhead") Bulkhead ingestionBulkhead,
+            @Qualifier("reportBulkhead") Bulkhead reportBulkhead,
+            @Qualifier("analysisBulkhead") Bulkhead analysisBulkhead
+    ) {
         this.jdbc = jdbc;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.ingestionBulkhead = ingestionBulkhead;
+        this.reportReader = new Reader(reportJdbc, readOnly(reportTransactionManager), reportBulkhead);
+        this.analysisReader = new Reader(analysisJdbc, readOnly(analysisTransactionManager), analysisBulkhead);
     }
 
     private final RowMapper<Candle> rowMapper = (rs, rowNum) ->
@@ -49,7 +99,7 @@ public class CandleTimescaleRepository implements CandleRepository {
                 SELECT * FROM public.candles
                 ORDER BY close_time
                 """;
-        return jdbc.query(sql, rowMapper);
+        return query("findAll", null, reader -> reader.jdbc().query(sql, rowMapper));
     }
 
     @Override
@@ -60,18 +110,179 @@ public class CandleTimescaleRepository implements CandleRepository {
                 WHERE lower(symbol) = lower(?)
                 ORDER BY close_time
                 """;
-        return jdbc.query(sql, rowMapper, symbol);
+        return query("findBySymbolIgnoreCase", symbol, reader -> reader.jdbc().query(sql, rowMapper, symbol));
+    }
+
+    @Override
+    public List<Candle> findWindowBySymbol(String symbol, Duration window, int minBars) {
+        log.debug("CandleTimescaleRepository | Finding candle window, Symbol: {}, Window: {}, Min bars: {}",
+                symbol, window, minBars);
+        var sql = """
+                WITH latest AS (
+                    SELECT max(close_time) AS close_time
+                    FROM public.candles
+                    WHERE symbol = ?
+                ), tail AS (
+                    SELECT close_time
+                    FROM public.candles
+                    WHERE symbol = ?
+                    ORDER BY close_time DESC
+                    OFFSET ? LIMIT 1
+                )
+                SELECT * FROM public.candles
+                WHERE symbol = ?
+                  AND close_time >= LEAST(
+                        (SELECT close_time FROM latest) - make_interval(secs => ?),
+                        COALESCE((SELECT close_time FROM tail), '-infinity'::timestamptz)
+                  )
+                ORDER BY close_time
+                """;
+        return query("findWindowBySymbol", symbol, reader -> reader.jdbc().query(sql, rowMapper,
+                symbol,
+                symbol,
+                Math.max(0, minBars - 1),
+                symbol,
+                (double) window.toSeconds()));
     }
 
     @Override
-    public void saveAll(List<Candle> candles) {
+    public List<Candle> findBucketsBySymbol(String symbol, Duration bucket, Instant from, Instant to) {
+        log.debug("CandleTimescaleRepository | Finding candle buckets, Symbol: {}, Bucket: {}, From: {}, To: {}",
+                symbol, bucket, from, to);
+        var sql = """
+                SELECT symbol,
+                       min(open_time)                AS open_time,
+                       max(close_time)               AS close_time,
+                       first(open_price, open_time)  AS open_price,
+                       max(high_price)               AS high_price,
+                       min(low_price)                AS low_price,
+                       last(close_price, close_time) AS close_price,
+                       sum(volume)                   AS volume,
+                       sum(amount)                   AS amount,
+                       sum(trades)                   AS trades
+                FROM public.candles
+                WHERE symbol = ?
+                  AND close_time >= ?
+                  AND close_time <= ?
+                GROUP BY symbol, time_bucket(make_interval(secs => ?), open_time)
+                ORDER BY close_time
+                """;
+        return query("findBucketsBySymbol", symbol, reader -> reader.jdbc().query(sql, rowMapper,
+                symbol,
+                Timestamp.from(from),
+                Timestamp.from(to),
+                (double) bucket.toSeconds()));
+    }
+
+    @Override
+    public List<Candle> findRollupWindowBySymbol(String symbol, Rollup rollup, Duration window) {
+        log.debug("CandleTimescaleRepository | Finding rollup window, Symbol: {}, Rollup: {}, Window: {}",
+                symbol, rollup, window);
+        var sql = """
+                SELECT symbol, open_time, close_time, open_price, high_price, low_price, close_price,
+                       volume, amount, trades
+                FROM public.%1$s
+                WHERE symbol = ?
+                  AND close_time >= (SELECT max(close_time) FROM public.%1$s WHERE symbol = ?)
+                                    - make_interval(secs => ?)
+                ORDER BY close_time
+                """.formatted(rollup.getView());
+        return query("findRollupWindowBySymbol", symbol, reader -> reader.jdbc().query(sql, rowMapper,
+                symbol,
+                symbol,
+                (double) window.toSeconds()));
+    }
+
+    @Override
+    public CandleAggregate aggregateWindowBySymbol(String symbol, Duration window) {
+        log.debug("CandleTimescaleRepository | Aggregating candle window, Symbol: {}, Window: {}", symbol, window);
+        var sql = """
+                SELECT count(*)                                                 AS entries,
+                       min(open_time)                                           AS first_open_time,
+                       max(close_time)                                          AS last_close_time,
+                       avg(open_price)                                          AS avg_open_price,
+                       avg(close_price)                                         AS avg_close_price,
+                       avg(high_price)                                          AS avg_high_price,
+                       avg(low_price)                                           AS avg_low_price,
+                       avg(high_price - low_price)                              AS avg_price_range,
+                       max(open_price)                                          AS max_open_price,
+                       max(close_price)                                         AS max_close_price,
+                       max(high_price)                                          AS max_high_price,
+                       max(low_price)                                           AS max_low_price,
+                       max(high_price - low_price)                              AS max_price_range,
+                       max(volume)                                              AS max_volume,
+                       max(amount)                                              AS max_amount,
+                       min(open_price)                                          AS min_open_price,
+                       min(close_price)                                         AS min_close_price,
+                       min(high_price)                                          AS min_high_price,
+                       min(low_price)                                           AS min_low_price,
+                       min(high_price - low_price)                              AS min_price_range,
+                       min(volume)                                              AS min_volume,
+                       min(amount)                                              AS min_amount,
+                       sum(volume)                                              AS total_volume,
+                       sum(amount)                                              AS total_amount,
+                       sum((high_price + low_price + close_price) / 3 * volume) AS weighted_price_sum
+                FROM public.candles
+                WHERE symbol = ?
+                  AND close_time >= (SELECT max(close_time) FROM public.candles WHERE symbol = ?)
+                                    - make_interval(secs => ?)
+                """;
+        QueryEvent queryEvent = new QueryEvent();
+        queryEvent.begin();
+        RowMapper<CandleAggregate> aggregateMapper = (rs, rowNum) -> CandleAggregate.builder()
+                .entries(rs.getInt("entries"))
+                .firstOpenTime(rs.getTimestamp("first_open_time") != null
+                        ? rs.getTimestamp("first_open_time").toInstant()
+                        : null)
+                .lastCloseTime(rs.getTimestamp("last_close_time") != null
+                        ? rs.getTimestamp("last_close_time").toInstant()
+                        : null)
+                .avgOpenPrice(rs.getDouble("avg_open_price"))
+                .avgClosePrice(rs.getDouble("avg_close_price"))
+                .avgHighPrice(rs.getDouble("avg_high_price"))
+                .avgLowPrice(rs.getDouble("avg_low_price"))
+                .avgPriceRange(rs.getDouble("avg_price_range"))
+                .maxOpenPrice(rs.getDouble("max_open_price"))
+                .maxClosePrice(rs.getDouble("max_close_price"))
+                .maxHighPrice(rs.getDouble("max_high_price"))
+                .maxLowPrice(rs.getDouble("max_low_price"))
+                .maxPriceRange(rs.getDouble("max_price_range"))
+                .maxVolume(rs.getDouble("max_volume"))
+                .maxAmount(rs.getDouble("max_amount"))
+                .minOpenPrice(rs.getDouble("min_open_price"))
+                .minClosePrice(rs.getDouble("min_close_price"))
+                .minHighPrice(rs.getDouble("min_high_price"))
+                .minLowPrice(rs.getDouble("min_low_price"))
+                .minPriceRange(rs.getDouble("min_price_range"))
+                .minVolume(rs.getDouble("min_volume"))
+                .minAmount(rs.getDouble("min_amount"))
+                .totalVolume(rs.getDouble("total_volume"))
+                .totalAmount(rs.getDouble("total_amount"))
+                .weightedPriceSum(rs.getDouble("weighted_price_sum"))
+                .build();
+        Reader reader = reader();
+        CandleAggregate aggregate = reader.bulkhead().call(() -> reader.jdbc().queryForObject(sql, aggregateMapper,
+                symbol,
+                symbol,
+                (double) window.toSeconds()));
+        queryEvent.query = "aggregateWindowBySymbol";
+        queryEvent.symbol = symbol;
+        queryEvent.rows = 1;
+        queryEvent.commit();
+        return aggregate;
+    }
+
+    @Override
+    public Map<String, Integer> saveAll(List<Candle> candles) {
         var sql = """
                 INSERT INTO public.candles
                 (symbol, open_price, close_price, high_price, low_price, volume, amount, trades, open_time, close_time)
                 VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
                 ON CONFLICT (symbol, close_time) DO NOTHING
                 """;
-        var result = jdbc.batchUpdate(sql, new BatchPreparedStatementSetter() {
+        PersistEvent persistEvent = new PersistEvent();
+        persistEvent.begin();
+        var setter = new BatchPreparedStatementSetter() {
             @Override
             public void setValues(@NotNull PreparedStatement ps, int i) throws SQLException {
                 Candle c = candles.get(i);
@@ -91,17 +302,81 @@ public class CandleTimescaleRepository implements CandleRepository {
             public int getBatchSize() {
                 return candles.size();
             }
-        });
+        };
+        int[] result = ingestionBulkhead.call(() -> transactions.execute(status -> jdbc.batchUpdate(sql, setter)));
 
-        int inserted = 0;
-        for (int r : result) {
-            if (r > 0) inserted++;
+        Map<String, Integer> inserted = new HashMap<>();
+        int total = 0;
+        for (int i = 0; i < result.length; i++) {
+            int row = result[i] > 0 ? 1 : 0;
+            inserted.merge(candles.get(i).getSymbol(), row, Integer::sum);
+            total += row;
         }
+        persistEvent.symbol = inserted.size() == 1 ? candles.getFirst().getSymbol() : null;
+        persistEvent.rows = candles.size();
+        persistEvent.inserted = total;
+        persistEvent.commit();
 
-        log.debug(
-                "CandleTimescaleRepository | Saving Candles, Symbol: {}, Inserted: {}",
-                candles.stream().map(Candle::getSymbol),
-                inserted
-        );
+        log.debug("CandleTimescaleRepository | Saving Candles, Inserted: {}", inserted);
+        return inserted;
     }
+
+    @Override
+    public void streamBySymbol(String symbol, Instant after, Instant to, int limit, Consumer<Candle> consumer) {
+        log.debug("CandleTimescaleRepository | Streaming candles, Symbol: {}, After: {}, To: {}, Limit: {}",
+                symbol, after, to, limit);
+        var sql = """
+                SELECT * FROM public.candles
+                WHERE symbol = ?
+                  AND close_time > COALESCE(?::timestamptz, '-infinity'::timestamptz)
+                  AND close_time <= COALESCE(?::timestamptz, 'infinity'::timestamptz)
+                ORDER BY close_time
+                LIMIT ?
+                """;
+        QueryEvent queryEvent = new QueryEvent();
+        queryEvent.begin();
+        // The PostgreSQL driver only honours the fetch size, and so only uses a server-side cursor,
+        // inside a transaction; otherwise the whole result set is buffered on the heap.
+        Reader reader = reader();
+        JdbcTemplate readJdbc = reader.jdbc();
+        reader.bulkhead().run(() -> reader.transactions().executeWithoutResult(status -> readJdbc.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            ps.setString(1, symbol);
+            ps.setTimestamp(2, after != null ? Timestamp.from(after) : null);
+            ps.setTimestamp(3, to != null ? Timestamp.from(to) : null);
+            ps.setObject(4, limit > 0 ? limit : null, Types.INTEGER);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            consumer.accept(rowMapper.mapRow(rs, rs.getRow()));
+            queryEvent.rows++;
+        })));
+        queryEvent.query = "streamBySymbol";
+        queryEvent.symbol = symbol;
+        queryEvent.commit();
+    }
+
+    private List<Candle> query(String name, String symbol, Function<Reader, List<Candle>> query) {
+        QueryEvent queryEvent = new QueryEvent();
+        queryEvent.begin();
+        Reader reader = reader();
+        List<Candle> candles = reader.bulkhead().call(() -> query.apply(reader));
+        queryEvent.query = name;
+        queryEvent.symbol = symbol;
+        queryEvent.rows = candles.size();
+        queryEvent.commit();
+        return candles;
+    }
+
+    private Reader reader() {
+        return Workloads.isAnalysis() ? analysisReader : reportReader;
+    }
+
+    private TransactionTemplate readOnly(PlatformTransactionManager transactionManager) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly;
+    }
+
+    private record Reader(JdbcTemplate jdbc, TransactionTemplate transactions, Bulkhead bulkhead) {}
 }
@@ -0,0 +1,91 @@
+package com.dzenthai.cryptora.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+
+
+@Slf4j
+@Repository
+@Profile("!load-test & !replay")
+public class LeaseRepository {
+
+    /**
+     * Node heartbeats and per-symbol leases. A lease belongs to its owner until it expires, any node may take
+     * over an expired lease. All times are taken from the database clock so that node clocks never matter.
+     */
+
+    private final JdbcTemplate jdbc;
+
+    public LeaseRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void heartbeat(String nodeId) {
+        log.trace("LeaseRepository | Heartbeat, Node: {}", nodeId);
+        var sql = """
+                INSERT INTO public.cluster_nodes (node_id, heartbeat_at)
+                VALUES (?, now())
+                ON CONFLICT (node_id) DO UPDATE SET heartbeat_at = now()
+                """;
+        jdbc.update(sql, nodeId);
+    }
+
+    public int countLiveNodes(Duration ttl) {
+        var sql = """
+                SELECT count(*) FROM public.cluster_nodes
+                WHERE heartbeat_at > now() - make_interval(secs => ?)
+                """;
+        Integer count = jdbc.queryForObject(sql, Integer.class, (double) ttl.toSeconds());
+        return count == null ? 0 : count;
+    }
+
+    public void deleteDeadNodes(Duration ttl) {
+        var sql = """
+                DELETE FROM public.cluster_nodes
+                WHERE heartbeat_at < now() - make_interval(secs => ?)
+                """;
+        int deleted = jdbc.update(sql, (double) ttl.toSeconds());
+        if (deleted > 0) {
+            log.info("LeaseRepository | Removed dead nodes, Count: {}", deleted);
+        }
+    }
+
+    public List<String> findOwnedSymbols(String nodeId) {
+        var sql = """
+                SELECT symbol FROM public.symbol_leases
+                WHERE owner = ? AND expires_at > now()
+                ORDER BY symbol
+                """;
+        return jdbc.queryForList(sql, String.class, nodeId);
+    }
+
+    /**
+     * Takes or renews the lease of a symbol for {@code ttl}, returns false when another node holds it.
+     */
+    public boolean tryAcquire(String symbol, String nodeId, Duration ttl) {
+        var sql = """
+                INSERT INTO public.symbol_leases AS lease (symbol, owner, expires_at)
+                VALUES (?, ?, now() + make_interval(secs => ?))
+                ON CONFLICT (symbol) DO UPDATE
+                    SET owner = EXCLUDED.owner, expires_at = EXCLUDED.expires_at
+                    WHERE lease.owner = EXCLUDED.owner OR lease.expires_at <= now()
+                """;
+        return jdbc.update(sql, symbol, nodeId, (double) ttl.toSeconds()) > 0;
+    }
+
+    public void release(String symbol, String nodeId) {
+        log.debug("LeaseRepository | Releasing lease, Symbol: {}, Node: {}", symbol, nodeId);
+        jdbc.update("DELETE FROM public.symbol_leases WHERE symbol = ? AND owner = ?", symbol, nodeId);
+    }
+
+    public void deleteNode(String nodeId) {
+        log.debug("LeaseRepository | Removing node, Node: {}", nodeId);
+        jdbc.update("DELETE FROM public.symbol_leases WHERE owner = ?", nodeId);
+        jdbc.update("DELETE FROM public.cluster_nodes WHERE node_id = ?", nodeId);
+    }
+}
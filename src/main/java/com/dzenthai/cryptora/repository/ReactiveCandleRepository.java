@@ -0,0 +1,23 @@
+package com.dzenthai.cryptora.repository;
+
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.model.enums.Rollup;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+
+public interface ReactiveCandleRepository {
+
+    Flux<Candle> findBySymbol(String symbol);
+
+    /**
+     * Reactive counterpart of {@link CandleRepository#findWindowBySymbol(String, Duration, int)}.
+     */
+    Flux<Candle> findWindowBySymbol(String symbol, Duration window, int minBars);
+
+    /**
+     * Reactive counterpart of {@link CandleRepository#findRollupWindowBySymbol(String, Rollup, Duration)}.
+     */
+    Flux<Candle> findRollupWindowBySymbol(String symbol, Rollup rollup, Duration window);
+}
@@ -3,9 +3,14 @@ package com.dzenthai.cryptora.service;
 import com.dzenthai.cryptora.configuration.CryptoraProperties;
 import com.dzenthai.cryptora.mapper.AnalysisMapper;
 import com.dzenthai.cryptora.mapper.IndicatorMapper;
+import com.dzenthai.cryptora.model.context.CandleSeries;
+import com.dzenthai.cryptora.model.context.MarketData;
 import com.dzenthai.cryptora.model.dto.Analysis;
 import com.dzenthai.cryptora.model.entity.Candle;
 import com.dzenthai.cryptora.model.enums.*;
+import com.dzenthai.cryptora.monitoring.AnalysisEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.ta4j.core.Bar;
@@ -22,7 +27,6 @@ import org.ta4j.core.num.Num;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 
 @Slf4j
@@ -31,49 +35,58 @@ public class AnalysisService {
 
     private final CryptoraProperties cryptoraProperties;
 
-    private final CandleService candleService;
+    private final SeriesCache seriesCache;
+
+    private final SymbolRegistry symbolRegistry;
 
     private final AnalysisMapper analysisMapper;
 
     private final IndicatorMapper indicatorMapper;
 
+    private final MeterRegistry meterRegistry;
+
     public AnalysisService(
             CryptoraProperties cryptoraProperties,
-            CandleService candleService,
+            SeriesCache seriesCache,
+            SymbolRegistry symbolRegistry,
             AnalysisMapper analysisMapper,
-            IndicatorMapper indicatorMapper
+            IndicatorMapper indicatorMapper,
+            MeterRegistry meterRegistry
     ) {
         this.cryptoraProperties = cryptoraProperties;
-        this.candleService = candleService;
+        this.seriesCache = seriesCache;
+        this.symbolRegistry = symbolRegistry;
         this.analysisMapper = analysisMapper;
         this.indicatorMapper = indicatorMapper;
+        this.meterRegistry = meterRegistry;
     }
 
-    public Analysis getAnalysis(String baseAsset) {
-        return analyzeSymbolCandles(baseAsset, candleService.getCandleBySymbol(baseAsset), false);
+    public Analysis getAnalysis(MarketData marketData) {
+        return analyzeSymbolCandles(marketData.symbol(), marketData.candles(), false);
     }
 
-    public void getAnalysis() {
+    public void getAnalysis(Collection<String> symbols) {
         log.info("AnalysisService | Receiving analysis via logs");
-        candleService.getAllCandles().stream()
-                .collect(Collectors.groupingBy(Candle::getSymbol))
-                .forEach((baseAsset, candles) ->
-                        analyzeSymbolCandles(baseAsset, candles, true)
-                );
+        for (String symbol : symbols) {
+            // The cached series is read in place, ordered by close time, without materializing candles.
+            BarSeries series = seriesCache.read(symbol, candles -> candles.isEmpty() ? null : buildBarSeries(candles));
+            if (series != null) {
+                analyzeSeries(symbol, series, true);
+            }
+        }
     }
 
     private Analysis analyzeSymbolCandles(String baseAsset, List<Candle> candles, boolean shouldLog) {
         log.debug("AnalysisService | Analyzing symbol candles, base asset: {}", baseAsset);
-        String symbol = (baseAsset.endsWith("USDT")
-                ? baseAsset
-                : baseAsset + "USDT")
-                .toUpperCase(Locale.ROOT);
-
         var sortedCandles = candles.stream()
                 .sorted(Comparator.comparing(Candle::getOpenTime))
                 .toList();
 
-        var series = buildBarSeries(sortedCandles);
+        return analyzeSeries(baseAsset, buildBarSeries(sortedCandles), shouldLog);
+    }
+
+    private Analysis analyzeSeries(String baseAsset, BarSeries series, boolean shouldLog) {
+        String symbol = symbolRegistry.resolve(baseAsset);
 
         int requiredBars = Math.max(
                 cryptoraProperties.longTime().period(),
@@ -93,10 +106,39 @@ public class AnalysisService {
                     .build();
         }
 
-        return evaluateSignals(series, symbol, shouldLog);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        AnalysisEvent analysisEvent = new AnalysisEvent();
+        analysisEvent.begin();
+        Analysis analysis = evaluateSignals(series, symbol, shouldLog);
+        analysisEvent.symbol = symbol;
+        analysisEvent.bars = series.getBarCount();
+        analysisEvent.commit();
+        sample.stop(Timer.builder("cryptora.analysis.duration")
+                .description("Time to evaluate signals for a symbol")
+                .tag("symbol", symbol)
+                .register(meterRegistry));
+        recordLag(series, symbol);
+        return analysis;
+    }
+
+    private void recordLag(BarSeries series, String symbol) {
+        // The newest bar is usually the still-open minute whose close time lies in the future,
+        // the lag is measured from the newest bar that has actually closed.
+        Instant now = Instant.now();
+        for (int i = series.getEndIndex(); i >= series.getBeginIndex(); i--) {
+            Instant endTime = series.getBar(i).getEndTime();
+            if (!endTime.isAfter(now)) {
+                Timer.builder("cryptora.analysis.lag")
+                        .description("Time between a candle close and the completion of its analysis")
+                        .tag("symbol", symbol)
+                        .register(meterRegistry)
+                        .record(Duration.between(endTime, now));
+                return;
+            }
+        }
     }
 
-    private Analysis evaluateSignals(BarSeries series, String symbol, boolean shouldLog) {
+    Analysis evaluateSignals(BarSeries series, String symbol, boolean shouldLog) {
         log.debug("AnalysisService | Evaluating signals, symbol: {}, bar count: {}", symbol, series.getBarCount());
         ClosePriceIndicator close = new ClosePriceIndicator(series);
 
@@ -456,7 +498,7 @@ public class AnalysisService {
                 .doubleValue();
     }
 
-    private BarSeries buildBarSeries(List<Candle> candles) {
+    BarSeries buildBarSeries(List<Candle> candles) {
         log.trace("AnalysisService | Building bar series");
         List<Bar> bars = new ArrayList<>();
         Instant last = null;
@@ -476,6 +518,33 @@ public class AnalysisService {
                 .build();
     }
 
+    BarSeries buildBarSeries(CandleSeries candles) {
+        log.trace("AnalysisService | Building bar series, symbol: {}", candles.getSymbol());
+        List<Bar> bars = new ArrayList<>(candles.size());
+        for (int i = 0; i < candles.size(); i++) {
+            Instant openTime = Instant.ofEpochMilli(candles.openTime(i));
+            Instant closeTime = Instant.ofEpochMilli(candles.closeTime(i));
+            bars.add(new BaseBar(
+                    Duration.between(openTime, closeTime),
+                    openTime,
+                    closeTime,
+                    DecimalNum.valueOf(candles.openPrice(i)),
+                    DecimalNum.valueOf(candles.highPrice(i)),
+                    DecimalNum.valueOf(candles.lowPrice(i)),
+                    DecimalNum.valueOf(candles.closePrice(i)),
+                    DecimalNum.valueOf(candles.volume(i)),
+                    DecimalNum.valueOf(candles.amount(i)),
+                    candles.trades(i)
+            ));
+        }
+
+        return new BaseBarSeriesBuilder()
+                .withName("CryptoSeries")
+                .withBars(bars)
+                .withMaxBarCount(cryptoraProperties.tuning().series().maxBars())
+                .build();
+    }
+
     private Bar buildBar(Candle candle) {
         log.trace("AnalysisService | Building bar, symbol: {}", candle.getSymbol());
         return new BaseBar(
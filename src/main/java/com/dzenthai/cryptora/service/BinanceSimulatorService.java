@@ -0,0 +1,342 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.util.RandomWalk;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+
+@Slf4j
+@Service
+@Profile("binance-sim")
+public class BinanceSimulatorService {
+
+    /**
+     * Serves Binance-shaped klines from recorded files or from a per-symbol random walk, and decides for every
+     * request whether it is delayed, rate limited (429) or banned (418). Request weight is counted per minute
+     * like Binance does: a request over the limit is answered with 429, a further one within the same minute
+     * earns a ban for the configured retry-after. Fault decisions draw from one seeded stream, so a
+     * single-threaded client sees the same sequence of failures on every run.
+     */
+
+    private static final int MAX_KLINES_LIMIT = 1000;
+
+    private static final int EXCHANGE_INFO_WEIGHT = 20;
+
+    private static final int TICKER_24HR_WEIGHT = 80;
+
+    private static final Duration TICKER_WINDOW = Duration.ofDays(1);
+
+    private static final String RECORDING_SUFFIX = ".json";
+
+    private final CryptoraProperties cryptoraProperties;
+
+    private final SymbolRegistry symbolRegistry;
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    private final SplittableRandom faults;
+
+    private long weightMinute;
+
+    private int usedWeight;
+
+    private boolean limited;
+
+    private Instant bannedUntil = Instant.EPOCH;
+
+    public BinanceSimulatorService(
+            CryptoraProperties cryptoraProperties,
+            SymbolRegistry symbolRegistry,
+            ObjectMapper objectMapper
+    ) {
+        this.cryptoraProperties = cryptoraProperties;
+        this.symbolRegistry = symbolRegistry;
+        var simulator = cryptoraProperties.simulator();
+        this.faults = new SplittableRandom(simulator.seed());
+
+        if (simulator.recordings() != null && !simulator.recordings().isBlank()) {
+            loadRecordings(Path.of(simulator.recordings()), objectMapper);
+        } else {
+            Instant start = Instant.now().truncatedTo(ChronoUnit.MINUTES).minus(simulator.history());
+            for (String symbol : symbolRegistry.getSymbols()) {
+                var random = new SplittableRandom(simulator.seed() ^ symbol.hashCode());
+                series.put(symbol, new Series(new RandomWalk(symbol, random, start)));
+            }
+        }
+        log.info("BinanceSimulatorService | Simulating symbols: {}", series.keySet());
+    }
+
+    public record Throttle(int usedWeight, HttpStatus status, Duration retryAfter) {
+
+        public boolean rejected() {
+            return status != HttpStatus.OK;
+        }
+    }
+
+    public static int getKlinesWeight(int limit) {
+        if (limit < 100) return 1;
+        if (limit < 500) return 2;
+        if (limit <= MAX_KLINES_LIMIT) return 5;
+        return 10;
+    }
+
+    public static int getExchangeInfoWeight() {
+        return EXCHANGE_INFO_WEIGHT;
+    }
+
+    public static int getTicker24hrWeight() {
+        return TICKER_24HR_WEIGHT;
+    }
+
+    public void delay() {
+        var simulator = cryptoraProperties.simulator();
+        long millis = simulator.latency().toMillis();
+        long jitter = simulator.latencyJitter().toMillis();
+        if (jitter > 0) {
+            millis += ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized Throttle acquire(int weight) {
+        var simulator = cryptoraProperties.simulator();
+        Instant now = Instant.now();
+        long minute = now.getEpochSecond() / 60;
+        if (minute != weightMinute) {
+            weightMinute = minute;
+            usedWeight = 0;
+            limited = false;
+        }
+
+        if (now.isBefore(bannedUntil)) {
+            return new Throttle(usedWeight, HttpStatus.I_AM_A_TEAPOT, Duration.between(now, bannedUntil));
+        }
+        if (faults.nextDouble() < simulator.banRate()) {
+            bannedUntil = now.plus(simulator.retryAfter());
+            return new Throttle(usedWeight, HttpStatus.I_AM_A_TEAPOT, simulator.retryAfter());
+        }
+        if (faults.nextDouble() < simulator.rateLimitRate()) {
+            return new Throttle(usedWeight, HttpStatus.TOO_MANY_REQUESTS, simulator.retryAfter());
+        }
+
+        usedWeight += weight;
+        if (usedWeight > simulator.weightLimit()) {
+            if (limited) {
+                bannedUntil = now.plus(simulator.retryAfter());
+                return new Throttle(usedWeight, HttpStatus.I_AM_A_TEAPOT, simulator.retryAfter());
+            }
+            limited = true;
+            return new Throttle(usedWeight, HttpStatus.TOO_MANY_REQUESTS,
+                    Duration.ofSeconds(60 - now.getEpochSecond() % 60));
+        }
+        return new Throttle(usedWeight, HttpStatus.OK, Duration.ZERO);
+    }
+
+    /**
+     * Mirrors the Binance selection: with a start time the first {@code limit} klines opening at or after it,
+     * otherwise the latest {@code limit} klines opening at or before the end time.
+     */
+    public List<List<Object>> getKlines(String symbol, String interval, Long startTime, Long endTime, int limit) {
+        if (!"1m".equals(interval)) {
+            throw new IllegalArgumentException("Invalid interval, only 1m is simulated");
+        }
+        if (limit < 1 || limit > MAX_KLINES_LIMIT) {
+            throw new IllegalArgumentException("Invalid limit: %d".formatted(limit));
+        }
+        Series symbolSeries = series.get(symbol.toUpperCase(Locale.ROOT));
+        if (symbolSeries == null) {
+            throw new IllegalArgumentException("Invalid symbol: %s".formatted(symbol));
+        }
+
+        NavigableMap<Long, List<Object>> rows = symbolSeries.advance();
+        if (endTime != null) rows = rows.headMap(endTime, true);
+        if (startTime != null) {
+            return rows.tailMap(startTime, true).values().stream()
+                    .limit(limit)
+                    .toList();
+        }
+        List<List<Object>> latest = new ArrayList<>(limit);
+        for (List<Object> row : rows.descendingMap().values()) {
+            if (latest.size() == limit) break;
+            latest.add(row);
+        }
+        return latest.reversed();
+    }
+
+    public Map<String, Object> getExchangeInfo() {
+        return Map.of(
+                "timezone", "UTC",
+                "serverTime", Instant.now().toEpochMilli(),
+                "rateLimits", List.of(Map.of(
+                        "rateLimitType", "REQUEST_WEIGHT",
+                        "interval", "MINUTE",
+                        "intervalNum", 1,
+                        "limit", cryptoraProperties.simulator().weightLimit()
+                )),
+                "exchangeFilters", List.of(),
+                "symbols", series.keySet().stream()
+                        .sorted()
+                        .map(symbol -> {
+                            String quoteAsset = Objects.requireNonNullElse(symbolRegistry.getQuoteAsset(symbol), "");
+                            return Map.of(
+                                    "symbol", symbol,
+                                    "status", "TRADING",
+                                    "baseAsset", symbol.substring(0, symbol.length() - quoteAsset.length()),
+                                    "quoteAsset", quoteAsset,
+                                    "isSpotTradingAllowed", true
+                            );
+                        })
+                        .toList()
+        );
+    }
+
+    /**
+     * The MINI 24h ticker of every simulated symbol over the day up to its latest kline, so recorded series
+     * that ended in the past still report their last day of trading.
+     */
+    public List<Map<String, Object>> getTickers(String type) {
+        if (!"MINI".equals(type)) {
+            throw new IllegalArgumentException("Invalid type, only MINI is simulated");
+        }
+        return series.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> toTicker(entry.getKey(), entry.getValue().advance()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static Map<String, Object> toTicker(String symbol, NavigableMap<Long, List<Object>> rows) {
+        if (rows.isEmpty()) return null;
+        long latest = rows.lastKey();
+        var day = rows.tailMap(latest - TICKER_WINDOW.toMillis(), false).values();
+
+        List<Object> first = day.iterator().next();
+        List<Object> last = rows.lastEntry().getValue();
+        double high = Double.NEGATIVE_INFINITY;
+        double low = Double.POSITIVE_INFINITY;
+        double volume = 0;
+        double quoteVolume = 0;
+        long count = 0;
+        for (List<Object> row : day) {
+            high = Math.max(high, Double.parseDouble((String) row.get(2)));
+            low = Math.min(low, Double.parseDouble((String) row.get(3)));
+            volume += Double.parseDouble((String) row.get(5));
+            quoteVolume += Double.parseDouble((String) row.get(7));
+            count += ((Number) row.get(8)).longValue();
+        }
+        return Map.ofEntries(
+                Map.entry("symbol", symbol),
+                Map.entry("openPrice", first.get(1)),
+                Map.entry("highPrice", decimal(high)),
+                Map.entry("lowPrice", decimal(low)),
+                Map.entry("lastPrice", last.get(4)),
+                Map.entry("volume", decimal(volume)),
+                Map.entry("quoteVolume", decimal(quoteVolume)),
+                Map.entry("openTime", first.getFirst()),
+                Map.entry("closeTime", last.get(6)),
+                Map.entry("count", count)
+        );
+    }
+
+    private void loadRecordings(Path directory, ObjectMapper objectMapper) {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(RECORDING_SUFFIX)).toList()) {
+                String name = file.getFileName().toString();
+                String symbol = name.substring(0, name.length() - RECORDING_SUFFIX.length()).toUpperCase(Locale.ROOT);
+                List<List<Object>> rows = objectMapper.readValue(file.toFile(), new TypeReference<>() {});
+                var recorded = new TreeMap<Long, List<Object>>();
+                rows.forEach(row -> recorded.put(((Number) row.getFirst()).longValue(), row));
+                series.put(symbol, new Series(recorded));
+                log.debug("BinanceSimulatorService | Loaded recording, Symbol: {}, Klines: {}", symbol, recorded.size());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load kline recordings from " + directory, e);
+        }
+    }
+
+    private final class Series {
+
+        private final NavigableMap<Long, List<Object>> rows;
+
+        private final RandomWalk walk;
+
+        private Series(RandomWalk walk) {
+            this.rows = new ConcurrentSkipListMap<>();
+            this.walk = walk;
+        }
+
+        private Series(NavigableMap<Long, List<Object>> rows) {
+            this.rows = rows;
+            this.walk = null;
+        }
+
+        /**
+         * Appends the minutes generated since the last request and drops those older than the history,
+         * recorded series are returned as loaded.
+         */
+        private synchronized NavigableMap<Long, List<Object>> advance() {
+            if (walk == null) return rows;
+
+            Instant now = Instant.now();
+            for (Candle candle : walk.until(now.truncatedTo(ChronoUnit.MINUTES))) {
+                rows.put(candle.getOpenTime().toEpochMilli(), toRow(candle));
+            }
+            rows.headMap(now.minus(cryptoraProperties.simulator().history()).toEpochMilli()).clear();
+            return rows;
+        }
+    }
+
+    private static List<Object> toRow(Candle candle) {
+        return List.of(
+                candle.getOpenTime().toEpochMilli(),
+                decimal(candle.getOpenPrice()),
+                decimal(candle.getHighPrice()),
+                decimal(candle.getLowPrice()),
+                decimal(candle.getClosePrice()),
+                decimal(candle.getVolume()),
+                candle.getCloseTime().toEpochMilli(),
+                decimal(candle.getAmount()),
+                candle.getTrades(),
+                decimal(candle.getVolume() / 2),
+                decimal(candle.getAmount() / 2),
+                "0"
+        );
+    }
+
+    private static String decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(8, RoundingMode.HALF_UP).toPlainString();
+    }
+}
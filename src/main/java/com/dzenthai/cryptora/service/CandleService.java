@@ -1,16 +1,22 @@
 package com.dzenthai.cryptora.service;
 
-import com.binance.connector.client.spot.rest.model.KlinesItem;
-import com.binance.connector.client.spot.rest.model.KlinesResponse;
+import com.dzenthai.cryptora.model.context.CandleAggregate;
+import com.dzenthai.cryptora.model.context.KlineColumns;
+import com.dzenthai.cryptora.model.context.MarketData;
 import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.model.enums.Rollup;
 import com.dzenthai.cryptora.repository.CandleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
 
 
 @Slf4j
@@ -19,8 +25,30 @@ public class CandleService {
 
     private final CandleRepository candleRepository;
 
-    public CandleService(CandleRepository candleRepository) {
+    private final WatermarkService watermarkService;
+
+    private final QuantileService quantileService;
+
+    private final SeriesCache seriesCache;
+
+    private final SymbolRegistry symbolRegistry;
+
+    private final MeterRegistry meterRegistry;
+
+    public CandleService(
+            CandleRepository candleRepository,
+            WatermarkService watermarkService,
+            QuantileService quantileService,
+            SeriesCache seriesCache,
+            SymbolRegistry symbolRegistry,
+            MeterRegistry meterRegistry
+    ) {
         this.candleRepository = candleRepository;
+        this.watermarkService = watermarkService;
+        this.quantileService = quantileService;
+        this.seriesCache = seriesCache;
+        this.symbolRegistry = symbolRegistry;
+        this.meterRegistry = meterRegistry;
     }
 
     public List<Candle> getAllCandles() {
@@ -28,47 +56,121 @@ public class CandleService {
         return candleRepository.findAll();
     }
 
-    public void saveAllCandles(String symbol, KlinesResponse klinesResponse) {
-        if (klinesResponse == null || klinesResponse.isEmpty()) return;
+    public void saveCandles(String symbol, List<Candle> candles) {
+        if (candles == null || candles.isEmpty()) return;
+        saveCandles(Map.of(symbol, candles));
+    }
+
+    /**
+     * Persists the candles of several symbols in one write, then advances the watermark, the percentile
+     * sketches and the cached series of each symbol. The candles of a symbol must be ordered by close time.
+     */
+    public void saveCandles(Map<String, List<Candle>> candlesBySymbol) {
+        List<Candle> candles = new ArrayList<>();
+        candlesBySymbol.values().forEach(candles::addAll);
+        if (candles.isEmpty()) return;
 
-        String saveSymbol = (symbol.endsWith("USDT") ? symbol : symbol + "USDT").toUpperCase(Locale.ROOT);
+        log.debug("CandleService | Attempted to insert bars, symbols: {}", candlesBySymbol.keySet());
+        Map<String, Integer> inserted = candleRepository.saveAll(candles);
+        candlesBySymbol.forEach((symbol, symbolCandles) -> {
+            if (symbolCandles.isEmpty()) return;
+            int symbolInserted = inserted.getOrDefault(symbol, 0);
+            countPersisted(symbol, "inserted", symbolInserted);
+            countPersisted(symbol, "duplicated", symbolCandles.size() - symbolInserted);
+            watermarkService.advance(symbol, symbolCandles.getLast().getCloseTime());
+            quantileService.record(symbol, symbolCandles);
+            seriesCache.append(symbol, symbolCandles);
+        });
+    }
 
-        List<Candle> toInsert = new ArrayList<>(klinesResponse.size());
-        for (KlinesItem item : klinesResponse) {
-            Candle candle = buildCandle(saveSymbol, item);
-            toInsert.add(candle);
-        }
-        log.debug("CandleService | Attempted to insert bars, symbol: {}", saveSymbol);
-        candleRepository.saveAll(toInsert);
+    /**
+     * Catches the percentile sketches, the cached series and then the watermark of a symbol up with the
+     * candles another node persisted, for symbols this node does not write itself. Symbols without a
+     * watermark have served nothing yet and are skipped.
+     */
+    public void catchUp(String symbol) {
+        String searchSymbol = symbolRegistry.resolve(symbol);
+        if (watermarkService.getWatermark(searchSymbol).isEmpty()) return;
+
+        List<Candle> latest = candleRepository.findWindowBySymbol(searchSymbol, Duration.ZERO, 1);
+        if (latest.isEmpty()) return;
+        Instant closeTime = latest.getLast().getCloseTime();
+        quantileService.catchUp(searchSymbol, closeTime);
+        seriesCache.catchUp(searchSymbol, closeTime);
+        // Advanced last, so a conditional request never validates against caches that are behind it.
+        watermarkService.advance(searchSymbol, closeTime);
     }
 
-    public List<Candle> getCandleBySymbol(String symbol) {
-        String searchSymbol = (symbol.endsWith("USDT") ? symbol : symbol + "USDT")
-                .toUpperCase(Locale.ROOT);
-        log.debug("CandleService | Receiving candle for: {}", searchSymbol);
-        return candleRepository.findBySymbolIgnoreCase(searchSymbol);
+    public MarketData getMarketData(String symbol, Duration window, int minBars) {
+        String searchSymbol = symbolRegistry.resolve(symbol);
+        log.debug("CandleService | Receiving market data for: {}, window: {}, min bars: {}",
+                searchSymbol, window, minBars);
+        List<Candle> candles = window == null
+                ? candleRepository.findBySymbolIgnoreCase(searchSymbol)
+                : candleRepository.findWindowBySymbol(searchSymbol, window, minBars);
+        if (!candles.isEmpty()) {
+            watermarkService.advance(searchSymbol, candles.getLast().getCloseTime());
+        }
+        return MarketData.builder()
+                .symbol(searchSymbol)
+                .candles(candles)
+                .build();
     }
 
-    private Candle buildCandle(String symbol, KlinesItem kline) {
-        var savingSymbol = symbol.toUpperCase(Locale.ROOT);
-        log.debug("CandleService | Parsing and converting kline (candle) json for {} into object", savingSymbol);
-        long openTime = Long.parseLong(kline.get(0));
-        long closeTime = Long.parseLong(kline.get(6));
-
-        Instant beginTime = Instant.ofEpochMilli(openTime);
-        Instant endTime = Instant.ofEpochMilli(closeTime);
-
-        return Candle.builder()
-                .symbol(savingSymbol)
-                .openTime(beginTime)
-                .closeTime(endTime)
-                .openPrice(Double.parseDouble(kline.get(1)))
-                .closePrice(Double.parseDouble(kline.get(4)))
-                .highPrice(Double.parseDouble(kline.get(2)))
-                .lowPrice(Double.parseDouble(kline.get(3)))
-                .volume(Double.parseDouble(kline.get(5)))
-                .amount(Double.parseDouble(kline.get(7)))
-                .trades(Long.parseLong(kline.get(8)))
+    public MarketData getRollupMarketData(String symbol, Rollup rollup, Duration window) {
+        String searchSymbol = symbolRegistry.resolve(symbol);
+        log.debug("CandleService | Receiving {} rollups for: {}, window: {}", rollup, searchSymbol, window);
+        return MarketData.builder()
+                .symbol(searchSymbol)
+                .candles(candleRepository.findRollupWindowBySymbol(searchSymbol, rollup, window))
                 .build();
     }
+
+    public CandleAggregate getCandleAggregate(String symbol, Duration window) {
+        String searchSymbol = symbolRegistry.resolve(symbol);
+        log.debug("CandleService | Receiving candle aggregate for: {}, window: {}", searchSymbol, window);
+        return candleRepository.aggregateWindowBySymbol(searchSymbol, window);
+    }
+
+    public List<Candle> getCandleBucketsBySymbol(String symbol, Duration bucket, Instant from, Instant to) {
+        String searchSymbol = symbolRegistry.resolve(symbol);
+        log.debug("CandleService | Receiving candle buckets for: {}, bucket: {}", searchSymbol, bucket);
+        return candleRepository.findBucketsBySymbol(searchSymbol, bucket, from, to);
+    }
+
+    public void streamCandleBySymbol(String symbol, Instant after, Instant to, int limit, Consumer<Candle> consumer) {
+        String searchSymbol = symbolRegistry.resolve(symbol);
+        log.debug("CandleService | Streaming candles for: {}", searchSymbol);
+        candleRepository.streamBySymbol(searchSymbol, after, to, limit, consumer);
+    }
+
+    private void countPersisted(String symbol, String outcome, int count) {
+        Counter.builder("cryptora.candles.persisted")
+                .description("Candles handed to the repository, by whether they were new or already stored")
+                .tag("symbol", symbol)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    public List<Candle> buildCandles(String symbol, KlineColumns klines) {
+        String savingSymbol = symbolRegistry.resolve(symbol);
+        log.debug("CandleService | Converting {} klines for {} into candles", klines.size(), savingSymbol);
+        List<Candle> candles = new ArrayList<>(klines.size());
+        for (int i = 0; i < klines.size(); i++) {
+            candles.add(Candle.builder()
+                    .symbol(savingSymbol)
+                    .openTime(Instant.ofEpochMilli(klines.openTime(i)))
+                    .closeTime(Instant.ofEpochMilli(klines.closeTime(i)))
+                    .openPrice(klines.openPrice(i))
+                    .closePrice(klines.closePrice(i))
+                    .highPrice(klines.highPrice(i))
+                    .lowPrice(klines.lowPrice(i))
+                    .volume(klines.volume(i))
+                    .amount(klines.amount(i))
+                    .trades(klines.trades(i))
+                    .build());
+        }
+        return candles;
+    }
 }
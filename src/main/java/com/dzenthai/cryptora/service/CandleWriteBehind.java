@@ -0,0 +1,224 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.model.entity.Candle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+@Slf4j
+@Service
+public class CandleWriteBehind {
+
+    /**
+     * Decouples fetching from persistence: fetched batches are queued and a single writer drains them, merging
+     * the batches of every symbol waiting in the queue into one write, up to the maximum rows. The queue is
+     * bounded, a producer that finds it full waits for room, so a slow database slows fetching down instead
+     * of growing the heap. On shutdown the writer drains what is queued before the application stops. When
+     * disabled, batches are written by the caller.
+     */
+
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(1);
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final CryptoraProperties cryptoraProperties;
+
+    private final CandleService candleService;
+
+    private final MeterRegistry meterRegistry;
+
+    private final BlockingQueue<Batch> queue;
+
+    private final AtomicInteger queuedRows = new AtomicInteger();
+
+    private final Object drained = new Object();
+
+    private int pendingBatches;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public CandleWriteBehind(
+            CryptoraProperties cryptoraProperties,
+            CandleService candleService,
+            MeterRegistry meterRegistry
+    ) {
+        this.cryptoraProperties = cryptoraProperties;
+        this.candleService = candleService;
+        this.meterRegistry = meterRegistry;
+        var writeBehind = cryptoraProperties.writeBehind();
+        this.queue = new ArrayBlockingQueue<>(Math.max(writeBehind.capacity(), 1));
+
+        Gauge.builder("cryptora.write.queue.batches", queue::size)
+                .description("Candle batches waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("cryptora.write.queue.rows", queuedRows::get)
+                .description("Candles waiting to be written")
+                .register(meterRegistry);
+
+        if (writeBehind.enabled()) {
+            running = true;
+            writer = Thread.ofPlatform()
+                    .name("candle-writer")
+                    .daemon(true)
+                    .start(this::drain);
+        }
+    }
+
+    /**
+     * Queues the candles of a symbol for writing, waiting for room while the queue is full.
+     */
+    public void submit(String symbol, List<Candle> candles) {
+        if (candles == null || candles.isEmpty()) return;
+        if (!running) {
+            candleService.saveCandles(symbol, candles);
+            return;
+        }
+
+        Batch batch = new Batch(symbol, candles);
+        synchronized (drained) {
+            pendingBatches++;
+        }
+        queuedRows.addAndGet(candles.size());
+        try {
+            if (!queue.offer(batch)) {
+                Counter.builder("cryptora.write.backpressure")
+                        .description("Batches that waited for room in the write queue")
+                        .register(meterRegistry)
+                        .increment();
+                log.debug("CandleWriteBehind | Write queue full, waiting, Symbol: {}", symbol);
+                queue.put(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queuedRows.addAndGet(-candles.size());
+            completed(1);
+            candleService.saveCandles(symbol, candles);
+        }
+    }
+
+    /**
+     * Waits until every batch submitted so far has been written, or the timeout elapses, and returns whether
+     * the queue was drained.
+     */
+    public boolean awaitDrained(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (drained) {
+            while (pendingBatches > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return false;
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(drained, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!running) return;
+        running = false;
+        try {
+            writer.join(SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Batches queued after the writer stopped are written here.
+        List<Batch> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) write(remaining);
+        log.info("CandleWriteBehind | Write queue flushed");
+    }
+
+    private void drain() {
+        int maxRows = cryptoraProperties.writeBehind().maxBatchRows();
+        List<Batch> batches = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Batch first = queue.poll(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batches.add(first);
+                int rows = first.candles().size();
+                Batch next;
+                while (rows < maxRows && (next = queue.poll()) != null) {
+                    batches.add(next);
+                    rows += next.candles().size();
+                }
+                write(batches);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batches.clear();
+            }
+        }
+    }
+
+    private void write(List<Batch> batches) {
+        // Batches of a symbol overlap, as every fetch returns the latest klines, so they are merged by close
+        // time, keeping the first copy of a candle like the store does.
+        Map<String, NavigableMap<Instant, Candle>> merged = new LinkedHashMap<>();
+        int rows = 0;
+        for (Batch batch : batches) {
+            var candles = merged.computeIfAbsent(batch.symbol(), symbol -> new TreeMap<>());
+            batch.candles().forEach(candle -> candles.putIfAbsent(candle.getCloseTime(), candle));
+            rows += batch.candles().size();
+        }
+        Map<String, List<Candle>> bySymbol = new LinkedHashMap<>();
+        merged.forEach((symbol, candles) -> bySymbol.put(symbol, List.copyOf(candles.values())));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            candleService.saveCandles(bySymbol);
+        } catch (Exception e) {
+            // The next fetch returns the same latest klines, so what is lost here is written again.
+            log.error("CandleWriteBehind | Unable to write candles, Symbols: {}, Rows: {}", bySymbol.keySet(), rows, e);
+            Counter.builder("cryptora.write.failed")
+                    .description("Candles dropped because their write failed")
+                    .register(meterRegistry)
+                    .increment(rows);
+        } finally {
+            sample.stop(Timer.builder("cryptora.write.latency")
+                    .description("Time to write a merged batch of candles")
+                    .register(meterRegistry));
+            queuedRows.addAndGet(-rows);
+            completed(batches.size());
+        }
+        log.debug("CandleWriteBehind | Written batches: {}, Symbols: {}, Rows: {}",
+                batches.size(), bySymbol.size(), rows);
+    }
+
+    private void completed(int batches) {
+        synchronized (drained) {
+            pendingBatches -= batches;
+            if (pendingBatches <= 0) drained.notifyAll();
+        }
+    }
+
+    private record Batch(String symbol, List<Candle> candles) {
+    }
+}
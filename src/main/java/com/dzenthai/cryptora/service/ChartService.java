@@ -0,0 +1,153 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.mapper.KlineMapper;
+import com.dzenthai.cryptora.model.dto.Chart;
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.model.enums.ChartMode;
+import com.dzenthai.cryptora.util.Durations;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+
+@Slf4j
+@Service
+public class ChartService {
+
+    private static final Duration MIN_INTERVAL = Duration.ofMinutes(1);
+
+    private final CryptoraProperties cryptoraProperties;
+
+    private final CandleService candleService;
+
+    private final KlineMapper klineMapper;
+
+    public ChartService(
+            CryptoraProperties cryptoraProperties,
+            CandleService candleService,
+            KlineMapper klineMapper
+    ) {
+        this.cryptoraProperties = cryptoraProperties;
+        this.candleService = candleService;
+        this.klineMapper = klineMapper;
+    }
+
+    public Chart getChart(String asset, String duration, String interval, String mode, int points) {
+        log.debug("ChartService | Building chart, asset: {}, duration: {}, interval: {}, mode: {}, points: {}",
+                asset, duration, interval, mode, points);
+        ChartMode chartMode = ChartMode.of(mode);
+        Duration window = Durations.parse(duration);
+        Duration bucket = Durations.parse(interval);
+        int maxPoints = cryptoraProperties.tuning().chart().maxPoints();
+
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Invalid duration value: %s".formatted(duration));
+        }
+        if (bucket.compareTo(MIN_INTERVAL) < 0) {
+            throw new IllegalArgumentException("Interval must be at least %s, interval: %s"
+                    .formatted(MIN_INTERVAL, interval));
+        }
+
+        Instant endTime = Instant.now();
+        Instant beginTime = endTime.minus(window);
+
+        return switch (chartMode) {
+            case OHLC -> {
+                long expectedPoints = window.dividedBy(bucket);
+                if (expectedPoints > maxPoints) {
+                    throw new IllegalArgumentException(
+                            "Too many points requested: %d, maximum: %d, use a wider interval"
+                                    .formatted(expectedPoints, maxPoints));
+                }
+                var candles = candleService.getCandleBucketsBySymbol(asset, bucket, beginTime, endTime);
+                yield buildChart(candles, chartMode, bucket, beginTime, endTime);
+            }
+            case LTTB -> {
+                if (points < 3 || points > maxPoints) {
+                    throw new IllegalArgumentException("Points must be between 3 and %d, points: %d"
+                            .formatted(maxPoints, points));
+                }
+                // Pre-aggregate in the database so that only a small multiple of the point budget
+                // crosses the wire, then pick the visually significant buckets in memory.
+                Duration candidate = Duration.ofSeconds(window
+                        .dividedBy((long) points * cryptoraProperties.tuning().chart().lttbOversampling())
+                        .toSeconds());
+                Duration effective = candidate.compareTo(bucket) > 0 ? candidate : bucket;
+                var candles = candleService.getCandleBucketsBySymbol(asset, effective, beginTime, endTime);
+                yield buildChart(downsample(candles, points), chartMode, effective, beginTime, endTime);
+            }
+        };
+    }
+
+    private Chart buildChart(List<Candle> candles, ChartMode mode, Duration interval, Instant beginTime, Instant endTime) {
+        log.trace("ChartService | Building chart, mode: {}, points: {}", mode, candles.size());
+        return Chart.builder()
+                .symbol(candles.isEmpty() ? null : candles.getFirst().getSymbol())
+                .mode(mode)
+                .interval(interval)
+                .beginTime(beginTime)
+                .endTime(endTime)
+                .pointsCount(candles.size())
+                .points(candles.stream().map(klineMapper::mapToKline).toList())
+                .build();
+    }
+
+    private List<Candle> downsample(List<Candle> candles, int threshold) {
+        log.trace("ChartService | Downsampling {} candles to {} points", candles.size(), threshold);
+        int size = candles.size();
+        if (threshold >= size) return candles;
+
+        List<Candle> sampled = new ArrayList<>(threshold);
+        double every = (double) (size - 2) / (threshold - 2);
+        int a = 0;
+        sampled.add(candles.getFirst());
+
+        for (int i = 0; i < threshold - 2; i++) {
+            int avgRangeStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgRangeEnd = Math.min((int) Math.floor((i + 2) * every) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgRangeStart; j < avgRangeEnd; j++) {
+                avgX += x(candles.get(j));
+                avgY += y(candles.get(j));
+            }
+            int avgRangeLength = Math.max(1, avgRangeEnd - avgRangeStart);
+            avgX /= avgRangeLength;
+            avgY /= avgRangeLength;
+
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+            double ax = x(candles.get(a));
+            double ay = y(candles.get(a));
+
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((ax - avgX) * (y(candles.get(j)) - ay)
+                        - (ax - x(candles.get(j))) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled.add(candles.get(next));
+            a = next;
+        }
+
+        sampled.add(candles.getLast());
+        return sampled;
+    }
+
+    private double x(Candle candle) {
+        return candle.getCloseTime().toEpochMilli();
+    }
+
+    private double y(Candle candle) {
+        return candle.getClosePrice();
+    }
+}
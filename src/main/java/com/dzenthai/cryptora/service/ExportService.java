@@ -0,0 +1,149 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.mapper.KlineMapper;
+import com.dzenthai.cryptora.model.dto.Kline;
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.model.enums.ExportFormat;
+import com.dzenthai.cryptora.util.Bulkhead;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+
+@Slf4j
+@Service
+public class ExportService {
+
+    /**
+     * Streams candles on the async executor under the export timeout rather than the global async request
+     * timeout. Exports have their own bulkhead, whose permit is taken on the request thread, so a saturated
+     * export workload is answered with 503 before anything is written, and given back once the request
+     * completes, finished, failed or timed out. It caps how many report connections long exports can hold.
+     */
+
+    private static final String EXPORT = "export";
+
+    private static final String CSV_HEADER =
+            "symbol,open_time,close_time,open_price,high_price,low_price,close_price,volume,amount,trades";
+
+    private final CandleService candleService;
+
+    private final KlineMapper klineMapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final CryptoraProperties cryptoraProperties;
+
+    private final Bulkhead exportBulkhead;
+
+    public ExportService(
+            CandleService candleService,
+            KlineMapper klineMapper,
+            ObjectMapper objectMapper,
+            CryptoraProperties cryptoraProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.candleService = candleService;
+        this.klineMapper = klineMapper;
+        this.objectMapper = objectMapper;
+        this.cryptoraProperties = cryptoraProperties;
+        var export = cryptoraProperties.export();
+        this.exportBulkhead = new Bulkhead(EXPORT, export.maxConcurrent(), export.acquireTimeout(), meterRegistry);
+    }
+
+    public WebAsyncTask<Void> exportCandles(
+            String asset,
+            Instant from,
+            Instant to,
+            Instant after,
+            int limit,
+            ExportFormat format,
+            HttpServletResponse response
+    ) {
+        log.debug("ExportService | Exporting candles, asset: {}, from: {}, to: {}, after: {}, limit: {}, format: {}",
+                asset, from, to, after, limit, format);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Invalid range, from: %s is after to: %s".formatted(from, to));
+        }
+        // Keyset cursor: the close time of the last row a client received, exclusive.
+        // Without one, an inclusive lower bound is expressed as exclusive one microsecond
+        // earlier, which is the finest precision of timestamptz.
+        Instant lowerBound = after != null
+                ? after
+                : from != null ? from.minusNanos(1_000) : null;
+
+        StreamingResponseBody body = switch (format) {
+            case NDJSON -> outputStream -> writeNdjson(asset, lowerBound, to, limit, outputStream);
+            case CSV -> outputStream -> writeCsv(asset, lowerBound, to, limit, outputStream);
+        };
+
+        Runnable release = exportBulkhead.acquireDetached();
+        response.setContentType(format.getContentType());
+        var task = new WebAsyncTask<Void>(cryptoraProperties.export().timeout().toMillis(), () -> {
+            body.writeTo(response.getOutputStream());
+            return null;
+        });
+        task.onCompletion(release);
+        return task;
+    }
+
+    private void writeNdjson(String asset, Instant after, Instant to, int limit, OutputStream outputStream)
+            throws IOException {
+        ObjectWriter writer = objectMapper.writer();
+        OutputStream buffered = new BufferedOutputStream(outputStream);
+        candleService.streamCandleBySymbol(asset, after, to, limit, candle -> {
+            try {
+                buffered.write(writer.writeValueAsBytes(klineMapper.mapToKline(candle)));
+                buffered.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        buffered.flush();
+    }
+
+    private void writeCsv(String asset, Instant after, Instant to, int limit, OutputStream outputStream)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        candleService.streamCandleBySymbol(asset, after, to, limit, candle -> {
+            try {
+                writer.write(toCsvRow(candle));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private String toCsvRow(Candle candle) {
+        Kline kline = klineMapper.mapToKline(candle);
+        return kline.symbol() + ',' +
+                kline.openTime() + ',' +
+                kline.closeTime() + ',' +
+                kline.openPrice() + ',' +
+                kline.highPrice() + ',' +
+                kline.lowPrice() + ',' +
+                kline.closePrice() + ',' +
+                kline.volume() + ',' +
+                kline.amount() + ',' +
+                kline.trades() + '\n';
+    }
+}
@@ -1,56 +1,240 @@
 package com.dzenthai.cryptora.service;
 
-import com.binance.connector.client.common.ApiResponse;
-import com.binance.connector.client.spot.rest.api.SpotRestApi;
-import com.binance.connector.client.spot.rest.model.Interval;
-import com.binance.connector.client.spot.rest.model.KlinesResponse;
-import com.dzenthai.cryptora.model.enums.Asset;
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.exception.RateLimitedException;
+import com.dzenthai.cryptora.model.context.KlineColumns;
+import com.dzenthai.cryptora.monitoring.FetchEvent;
+import com.dzenthai.cryptora.util.KlineParser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 
 @Slf4j
 @Service
 public class FetchService {
 
+    /**
+     * Requests the latest klines of every owned symbol and hands the raw response bytes to the kline parser,
+     * which decodes them into primitive columns without a string per value. Binance limits request weight
+     * per IP: a 429 pauses every request of this instance for its Retry-After and is retried a few times, a
+     * 418 bans the IP and stops fetching until the ban is over. Each paused request waits a random jitter on
+     * top, drawn from a seeded stream so runs against the simulator are repeatable.
+     */
+
+    private static final int KLINES_LIMIT = 500;
+
+    private final CryptoraProperties cryptoraProperties;
+
     private final CandleService candleService;
 
-    private final SpotRestApi spotRestApi;
+    private final CandleWriteBehind candleWriteBehind;
+
+    private final ShardService shardService;
+
+    private final SymbolRegistry symbolRegistry;
+
+    private final MeterRegistry meterRegistry;
+
+    private final String apiUrl;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final Object throttle = new Object();
+
+    private final SplittableRandom jitter;
+
+    private Instant resumeAt = Instant.EPOCH;
+
+    private boolean banned;
 
     public FetchService(
+            CryptoraProperties cryptoraProperties,
             CandleService candleService,
-            SpotRestApi spotRestApi
+            CandleWriteBehind candleWriteBehind,
+            ShardService shardService,
+            SymbolRegistry symbolRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${binance.api.url}") String apiUrl
             ) {
+        this.cryptoraProperties = cryptoraProperties;
         this.candleService = candleService;
-        this.spotRestApi = spotRestApi;
+        this.candleWriteBehind = candleWriteBehind;
+        this.shardService = shardService;
+        this.symbolRegistry = symbolRegistry;
+        this.meterRegistry = meterRegistry;
+        this.apiUrl = apiUrl;
+        Long seed = cryptoraProperties.fetch().rateLimit().seed();
+        this.jitter = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
     }
 
     public void fetchNewCandles() {
+        if (!cryptoraProperties.fetch().enabled()) {
+            log.debug("FetchService | Fetching is disabled, skipping");
+            return;
+        }
+        Duration ban = getBan();
+        if (ban != null) {
+            log.warn("FetchService | Banned by Binance for another {}, skipping", ban);
+            return;
+        }
         log.debug("FetchService | Fetching new candles");
-        List<String> symbols = Asset.getAllSymbols();
+        List<String> symbols = symbolRegistry.getSymbols().stream()
+                .filter(shardService::owns)
+                .toList();
+
+        // Symbols are fetched concurrently, at most the configured number of requests in flight at a time.
+        Semaphore permits = new Semaphore(cryptoraProperties.fetch().concurrency());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            symbols.forEach(symbol -> executor.submit(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    fetchSymbol(symbol);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        // Writing overlaps with fetching, the cycle ends once what it fetched is written so the analysis sees it.
+        if (!candleWriteBehind.awaitDrained(cryptoraProperties.writeBehind().flushTimeout())) {
+            log.warn("FetchService | Candles are still being written, analysing what is stored");
+        }
+    }
+
+    private void fetchSymbol(String symbol) {
+        log.debug("FetchService | Processing symbol: {}", symbol);
+        try {
 
-        symbols.forEach(symbol -> {
-            log.debug("FetchService | Processing symbol: {}", symbol);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            FetchEvent fetchEvent = new FetchEvent();
+            fetchEvent.begin();
+            KlineColumns klines = new KlineColumns(KLINES_LIMIT);
             try {
+                fetchEvent.rows = KlineParser.parse(getKlines(symbol), klines);
+            } finally {
+                fetchEvent.symbol = symbol;
+                fetchEvent.commit();
+                sample.stop(Timer.builder("cryptora.fetch.latency")
+                        .description("Time to fetch the klines of a symbol from Binance")
+                        .tag("symbol", symbol)
+                        .register(meterRegistry));
+            }
+
+            Counter.builder("cryptora.fetch.rows")
+                    .description("Klines received from Binance")
+                    .tag("symbol", symbol)
+                    .register(meterRegistry)
+                    .increment(klines.size());
+            candleWriteBehind.submit(symbol, candleService.buildCandles(symbol, klines));
+            log.debug("FetchService | Candles queued for writing");
+
+        } catch (RateLimitedException e) {
+            log.warn("FetchService | {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("FetchService | Error while fetching symbol: {}", symbol, e);
+        }
+    }
 
-                ApiResponse<KlinesResponse> klinesResponse = spotRestApi.klines(
-                        symbol,
-                        Interval.INTERVAL_1m,
-                        null,
-                        null,
-                        "+0",
-                        500
-                );
-
-                KlinesResponse klines = klinesResponse.getData();
-                candleService.saveAllCandles(symbol, klines);
-                log.debug("FetchService | Candle successfully saved");
-
-            } catch (Exception e) {
-                log.error("FetchService | Error while fetching symbol: {}", symbol, e);
+    private byte[] getKlines(String symbol) throws IOException, InterruptedException {
+        URI uri = URI.create("%s/api/v3/klines?symbol=%s&interval=1m&timeZone=%%2B0&limit=%d"
+                .formatted(apiUrl, symbol, KLINES_LIMIT));
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        int maxRetries = cryptoraProperties.fetch().rateLimit().maxRetries();
+        for (int retry = 0; ; retry++) {
+            awaitRateLimit(symbol);
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            int status = response.statusCode();
+            if (status == HttpStatus.OK.value()) {
+                return response.body();
             }
-        });
+            boolean ban = status == HttpStatus.I_AM_A_TEAPOT.value();
+            if (!ban && status != HttpStatus.TOO_MANY_REQUESTS.value()) {
+                throw new IOException("Unexpected status %d for the klines of %s".formatted(status, symbol));
+            }
+            Duration retryAfter = backOff(response, ban);
+            if (ban || retry >= maxRetries) {
+                throw new RateLimitedException(symbol, retryAfter);
+            }
+        }
+    }
+
+    /**
+     * Waits out a rate limit in force plus a jitter, or fails right away while the IP is banned.
+     */
+    private void awaitRateLimit(String symbol) throws InterruptedException {
+        long waitMillis;
+        synchronized (throttle) {
+            Duration remaining = Duration.between(Instant.now(), resumeAt);
+            if (!remaining.isPositive()) {
+                banned = false;
+                return;
+            }
+            if (banned) throw new RateLimitedException(symbol, remaining);
+            long jitterMillis = cryptoraProperties.fetch().rateLimit().jitter().toMillis();
+            waitMillis = remaining.toMillis() + (jitterMillis > 0 ? jitter.nextLong(jitterMillis + 1) : 0);
+        }
+        Thread.sleep(waitMillis);
+    }
+
+    /**
+     * Pauses every request until the Retry-After of a 429 or 418 has passed, and returns it.
+     */
+    private Duration backOff(HttpResponse<byte[]> response, boolean ban) {
+        Duration retryAfter = response.headers().firstValue(HttpHeaders.RETRY_AFTER)
+                .map(this::parseRetryAfter)
+                .orElse(cryptoraProperties.fetch().rateLimit().retryAfter());
+        Counter.builder("cryptora.fetch.throttled")
+                .description("Kline requests Binance answered with 429 or 418")
+                .tag("status", String.valueOf(response.statusCode()))
+                .register(meterRegistry)
+                .increment();
+        synchronized (throttle) {
+            Instant until = Instant.now().plus(retryAfter);
+            if (until.isAfter(resumeAt)) resumeAt = until;
+            if (ban) banned = true;
+        }
+        log.warn("FetchService | Binance answered {}, pausing requests for {}", response.statusCode(), retryAfter);
+        return retryAfter;
+    }
+
+    private Duration parseRetryAfter(String seconds) {
+        try {
+            return Duration.ofSeconds(Long.parseLong(seconds.trim()));
+        } catch (NumberFormatException e) {
+            return cryptoraProperties.fetch().rateLimit().retryAfter();
+        }
+    }
+
+    /**
+     * The remainder of a ban in force, or null.
+     */
+    private Duration getBan() {
+        synchronized (throttle) {
+            Duration remaining = Duration.between(Instant.now(), resumeAt);
+            return banned && remaining.isPositive() ? remaining : null;
+        }
     }
 }
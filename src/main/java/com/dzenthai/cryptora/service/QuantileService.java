@@ -0,0 +1,331 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.model.dto.Percentiles;
+import com.dzenthai.cryptora.model.dto.Quantiles;
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.repository.CandleRepository;
+import com.dzenthai.cryptora.util.Workloads;
+import com.tdunning.math.stats.MergingDigest;
+import com.tdunning.math.stats.TDigest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+@Slf4j
+@Service
+public class QuantileService {
+
+    /**
+     * Keeps one pair of t-digests (price range, volume) per symbol per time bucket. A window is answered
+     * by merging the buckets it covers, the bucket containing the window start is included whole. Buckets
+     * are kept for the sketch retention, a window starting before it has no percentiles rather than ones
+     * covering only its tail.
+     */
+
+    private static final long NO_LATEST = Long.MIN_VALUE;
+
+    private final CryptoraProperties cryptoraProperties;
+
+    private final CandleRepository candleRepository;
+
+    private final SymbolRegistry symbolRegistry;
+
+    private final Map<String, SymbolSketches> sketches = new ConcurrentHashMap<>();
+
+    public QuantileService(
+            CryptoraProperties cryptoraProperties,
+            CandleRepository candleRepository,
+            SymbolRegistry symbolRegistry
+    ) {
+        this.cryptoraProperties = cryptoraProperties;
+        this.candleRepository = candleRepository;
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    /**
+     * Merges the buckets of a window, or returns null when the window starts before the retained buckets,
+     * allowing for the one containing the start of the retention.
+     */
+    public Percentiles getPercentiles(String baseAsset, Instant beginTime, Instant endTime) {
+        String symbol = toSymbol(baseAsset);
+        log.debug("QuantileService | Receiving percentiles, symbol: {}, begin time: {}, end time: {}",
+                symbol, beginTime, endTime);
+        var sketch = cryptoraProperties.tuning().sketch();
+        Instant retained = Instant.now().minus(sketch.retention()).minus(sketch.bucket());
+        if (beginTime.isBefore(retained)) {
+            log.debug("QuantileService | Window starts before the sketch retention, omitting percentiles, "
+                    + "symbol: {}", symbol);
+            return null;
+        }
+        SymbolSketches symbolSketches = getSketches(symbol);
+        if (!symbolSketches.hydrated) {
+            hydrate(symbol, symbolSketches);
+        }
+
+        synchronized (symbolSketches) {
+            TDigest priceRange = createDigest();
+            TDigest volume = createDigest();
+            Instant from = bucketStart(beginTime);
+            for (Bucket bucket : symbolSketches.buckets.subMap(from, true, endTime, true).values()) {
+                priceRange.add(bucket.priceRange);
+                volume.add(bucket.volume);
+            }
+
+            return Percentiles.builder()
+                    .priceRange(toQuantiles(priceRange))
+                    .volume(toQuantiles(volume))
+                    .sampleCount(volume.size())
+                    .build();
+        }
+    }
+
+    public void record(String baseAsset, List<Candle> candles) {
+        if (candles == null || candles.isEmpty()) return;
+        String symbol = toSymbol(baseAsset);
+        SymbolSketches symbolSketches = getSketches(symbol);
+
+        synchronized (symbolSketches) {
+            // Until the symbol is hydrated, the persisted rows are picked up by hydration: the running one
+            // replays them once it has read the store, a later one reads them from the store.
+            if (!symbolSketches.hydrated) {
+                if (symbolSketches.pending != null) symbolSketches.pending.addAll(candles);
+                return;
+            }
+
+            int added = 0;
+            for (Candle candle : candles) {
+                if (add(symbolSketches, candle)) added++;
+            }
+            evict(symbolSketches);
+            log.trace("QuantileService | Recorded {} candles, symbol: {}", added, symbol);
+        }
+    }
+
+    /**
+     * Records the candles another node persisted for a symbol up to {@code latest}, its newest stored close
+     * time. Sketches that are not hydrated are left to hydration.
+     */
+    public void catchUp(String baseAsset, Instant latest) {
+        String symbol = toSymbol(baseAsset);
+        SymbolSketches symbolSketches = sketches.get(symbol);
+        if (symbolSketches == null) return;
+
+        Instant since;
+        synchronized (symbolSketches) {
+            if (!symbolSketches.hydrated) return;
+            if (symbolSketches.latest != null && !latest.isAfter(symbolSketches.latest)) return;
+            Instant horizon = Instant.now().minus(cryptoraProperties.tuning().sketch().retention());
+            since = symbolSketches.latest == null || symbolSketches.latest.isBefore(horizon)
+                    ? horizon
+                    : symbolSketches.latest;
+        }
+        List<Candle> candles = new ArrayList<>();
+        Workloads.analysis(() -> candleRepository.streamBySymbol(symbol, since, latest, 0, candles::add));
+        record(symbol, candles);
+    }
+
+    /**
+     * Writes the hydrated sketches of every symbol: the newest recorded close time, then every bucket start
+     * followed by its two digests.
+     */
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        List<Map.Entry<String, SymbolSketches>> hydrated = sketches.entrySet().stream()
+                .filter(entry -> entry.getValue().hydrated)
+                .toList();
+        out.writeInt(hydrated.size());
+        for (var entry : hydrated) {
+            SymbolSketches symbolSketches = entry.getValue();
+            synchronized (symbolSketches) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(symbolSketches.latest == null ? NO_LATEST : symbolSketches.latest.toEpochMilli());
+                out.writeInt(symbolSketches.buckets.size());
+                for (var bucket : symbolSketches.buckets.entrySet()) {
+                    out.writeLong(bucket.getKey().toEpochMilli());
+                    writeDigest(out, bucket.getValue().priceRange);
+                    writeDigest(out, bucket.getValue().volume);
+                }
+            }
+        }
+    }
+
+    /**
+     * Restores the sketches of a snapshot and records the candles persisted since, so a symbol is hydrated
+     * without streaming its whole retention window. Sketches ahead of the store are discarded.
+     */
+    public void readSnapshot(DataInputStream in) throws IOException {
+        int symbols = in.readInt();
+        for (int s = 0; s < symbols; s++) {
+            String symbol = in.readUTF();
+            long latest = in.readLong();
+            int buckets = in.readInt();
+            SymbolSketches restored = new SymbolSketches();
+            for (int i = 0; i < buckets; i++) {
+                Instant start = Instant.ofEpochMilli(in.readLong());
+                restored.buckets.put(start, new Bucket(readDigest(in), readDigest(in)));
+            }
+            restored.latest = latest == NO_LATEST ? null : Instant.ofEpochMilli(latest);
+            restore(symbol, restored);
+        }
+    }
+
+    private void restore(String symbol, SymbolSketches restored) {
+        if (restored.latest != null) {
+            List<Candle> stored = Workloads.analysis(() ->
+                    candleRepository.findWindowBySymbol(symbol, Duration.ZERO, 1));
+            if (stored.isEmpty() || stored.getLast().getCloseTime().isBefore(restored.latest)) {
+                log.info("QuantileService | Snapshot is ahead of the store, discarding it, symbol: {}", symbol);
+                return;
+            }
+        }
+
+        Instant horizon = Instant.now().minus(cryptoraProperties.tuning().sketch().retention());
+        Instant since = restored.latest == null || restored.latest.isBefore(horizon) ? horizon : restored.latest;
+        Workloads.analysis(() ->
+                candleRepository.streamBySymbol(symbol, since, null, 0, candle -> add(restored, candle)));
+        evict(restored);
+        restored.hydrated = true;
+
+        SymbolSketches current = sketches.putIfAbsent(symbol, restored);
+        if (current != null) {
+            synchronized (current) {
+                if (current.hydrated) return;
+                sketches.put(symbol, restored);
+            }
+        }
+        log.info("QuantileService | Restored sketches, symbol: {}, buckets: {}", symbol, restored.buckets.size());
+    }
+
+    private void writeDigest(DataOutputStream out, TDigest digest) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(digest.byteSize());
+        digest.asBytes(buffer);
+        out.writeInt(buffer.position());
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    private TDigest readDigest(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return MergingDigest.fromBytes(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Builds the sketches of a symbol from the store without holding its lock, so recording is not blocked
+     * while the retention window is streamed, then swaps them in and replays what was recorded meanwhile.
+     * Concurrent callers wait for the one hydration running for the symbol.
+     */
+    private void hydrate(String symbol, SymbolSketches symbolSketches) {
+        synchronized (symbolSketches.hydration) {
+            if (symbolSketches.hydrated) return;
+            log.debug("QuantileService | Hydrating sketches, symbol: {}", symbol);
+            synchronized (symbolSketches) {
+                symbolSketches.pending = new ArrayList<>();
+            }
+            try {
+                SymbolSketches hydrated = new SymbolSketches();
+                Instant since = Instant.now().minus(cryptoraProperties.tuning().sketch().retention());
+                Workloads.analysis(() ->
+                        candleRepository.streamBySymbol(symbol, since, null, 0, candle -> add(hydrated, candle)));
+
+                synchronized (symbolSketches) {
+                    symbolSketches.buckets.clear();
+                    symbolSketches.buckets.putAll(hydrated.buckets);
+                    symbolSketches.latest = hydrated.latest;
+                    // Candles already streamed are skipped, as they close no later than the newest one.
+                    symbolSketches.pending.forEach(candle -> add(symbolSketches, candle));
+                    evict(symbolSketches);
+                    symbolSketches.hydrated = true;
+                    log.debug("QuantileService | Hydrated sketches, symbol: {}, buckets: {}",
+                            symbol, symbolSketches.buckets.size());
+                }
+            } finally {
+                synchronized (symbolSketches) {
+                    symbolSketches.pending = null;
+                }
+            }
+        }
+    }
+
+    private boolean add(SymbolSketches symbolSketches, Candle candle) {
+        Instant closeTime = candle.getCloseTime();
+        if (symbolSketches.latest != null && !closeTime.isAfter(symbolSketches.latest)) return false;
+
+        Bucket bucket = symbolSketches.buckets.computeIfAbsent(bucketStart(closeTime),
+                start -> new Bucket(createDigest(), createDigest()));
+        bucket.priceRange.add(candle.getHighPrice() - candle.getLowPrice());
+        bucket.volume.add(candle.getVolume());
+        symbolSketches.latest = closeTime;
+        return true;
+    }
+
+    private void evict(SymbolSketches symbolSketches) {
+        Instant horizon = bucketStart(Instant.now().minus(cryptoraProperties.tuning().sketch().retention()));
+        symbolSketches.buckets.headMap(horizon, false).clear();
+    }
+
+    private Quantiles toQuantiles(TDigest digest) {
+        if (digest.size() == 0) {
+            return Quantiles.builder().p50(0.0).p95(0.0).p99(0.0).build();
+        }
+        return Quantiles.builder()
+                .p50(round8(digest.quantile(0.50)))
+                .p95(round8(digest.quantile(0.95)))
+                .p99(round8(digest.quantile(0.99)))
+                .build();
+    }
+
+    private Instant bucketStart(Instant time) {
+        long bucketMillis = cryptoraProperties.tuning().sketch().bucket().toMillis();
+        long millis = time.toEpochMilli();
+        return Instant.ofEpochMilli(millis - Math.floorMod(millis, bucketMillis));
+    }
+
+    private TDigest createDigest() {
+        return TDigest.createMergingDigest(cryptoraProperties.tuning().sketch().compression());
+    }
+
+    private SymbolSketches getSketches(String symbol) {
+        return sketches.computeIfAbsent(symbol, s -> new SymbolSketches());
+    }
+
+    private double round8(double value) {
+        return BigDecimal.valueOf(value).setScale(8, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    private String toSymbol(String baseAsset) {
+        return symbolRegistry.resolve(baseAsset);
+    }
+
+    private static final class SymbolSketches {
+
+        private final NavigableMap<Instant, Bucket> buckets = new TreeMap<>();
+
+        private final Object hydration = new Object();
+
+        // Candles recorded while a hydration streams the store, null otherwise.
+        private List<Candle> pending;
+
+        private Instant latest;
+
+        // Read without the lock to skip hydration and when the sketches are snapshotted.
+        private volatile boolean hydrated;
+    }
+
+    private record Bucket(TDigest priceRange, TDigest volume) {}
+}
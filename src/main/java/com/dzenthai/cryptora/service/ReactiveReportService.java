@@ -0,0 +1,152 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.model.context.MarketData;
+import com.dzenthai.cryptora.model.dto.Report;
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.model.enums.Rollup;
+import com.dzenthai.cryptora.repository.ReactiveCandleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuples;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveReportService {
+
+    /**
+     * Serves reports like {@link ReportService}: identical requests for the same watermark join one in-flight
+     * computation and are recorded under the same request and latency metrics. Candles are read over R2DBC,
+     * whose pool bounds these reads instead of the report bulkhead; the percentile sketches the statistics
+     * may hydrate read through the analysis bulkhead.
+     */
+
+    private final StatisticService statisticService;
+
+    private final WatermarkService watermarkService;
+
+    private final ReactiveCandleRepository reactiveCandleRepository;
+
+    private final SymbolRegistry symbolRegistry;
+
+    private final Map<ReportKey, Mono<Report>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter computedCounter;
+
+    private final Counter coalescedCounter;
+
+    private final MeterRegistry meterRegistry;
+
+    public ReactiveReportService(
+            StatisticService statisticService,
+            WatermarkService watermarkService,
+            ReactiveCandleRepository reactiveCandleRepository,
+            SymbolRegistry symbolRegistry,
+            MeterRegistry meterRegistry
+    ) {
+        this.statisticService = statisticService;
+        this.watermarkService = watermarkService;
+        this.reactiveCandleRepository = reactiveCandleRepository;
+        this.symbolRegistry = symbolRegistry;
+        this.meterRegistry = meterRegistry;
+        this.computedCounter = Counter.builder("cryptora.report.requests")
+                .description("Report requests by whether they computed the report or joined an in-flight one")
+                .tag("outcome", "computed")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("cryptora.report.requests")
+                .description("Report requests by whether they computed the report or joined an in-flight one")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+    }
+
+    public Mono<Report> getReport(String asset, String duration) {
+        log.debug("ReactiveReportService | Receiving report for {}", asset);
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return getOrJoinReport(asset, duration)
+                    .doFinally(signal -> sample.stop(Timer.builder("cryptora.report.latency")
+                            .description("Report latency by requested window")
+                            .tag("window", statisticService.getWindowBucket(duration))
+                            .register(meterRegistry)));
+        });
+    }
+
+    private Mono<Report> getOrJoinReport(String asset, String duration) {
+        var key = new ReportKey(
+                symbolRegistry.resolve(asset),
+                duration == null ? "" : duration.toLowerCase(Locale.ROOT),
+                watermarkService.getWatermark(asset).orElse(null)
+        );
+
+        // Only the computation that made it into the map is ever subscribed, so its removal cannot
+        // remove a later one.
+        var computation = calculateReport(asset, duration)
+                .doFinally(signal -> inFlight.remove(key))
+                .cache();
+        var existing = inFlight.putIfAbsent(key, computation);
+        if (existing != null) {
+            log.debug("ReactiveReportService | Joining in-flight report, key: {}", key);
+            coalescedCounter.increment();
+            return existing;
+        }
+        computedCounter.increment();
+        return computation;
+    }
+
+    private Mono<Report> calculateReport(String asset, String duration) {
+        String symbol = symbolRegistry.resolve(asset);
+        int requiredBars = statisticService.getRequiredBars();
+
+        return Mono.fromCallable(() -> Optional.ofNullable(statisticService.parseDuration(duration)))
+                .flatMap(window -> {
+                    Rollup rollup = window.map(statisticService::getRollup).orElse(null);
+                    if (rollup == null) {
+                        Flux<Candle> candles = window.isPresent()
+                                ? reactiveCandleRepository.findWindowBySymbol(symbol, window.get(), requiredBars)
+                                : reactiveCandleRepository.findBySymbol(symbol);
+                        return getMarketData(symbol, candles)
+                                .map(marketData -> Tuples.of(marketData, marketData));
+                    }
+                    // The statistics read the rollups, the analysis the latest one-minute candles.
+                    Flux<Candle> rollups = reactiveCandleRepository.findRollupWindowBySymbol(symbol, rollup, window.get());
+                    Flux<Candle> recent = reactiveCandleRepository.findWindowBySymbol(symbol, Duration.ZERO, requiredBars);
+                    return Mono.zip(getMarketData(symbol, rollups), getMarketData(symbol, recent));
+                })
+                // The statistics and ta4j analysis are CPU bound and may hydrate percentile
+                // sketches over JDBC, so they must not run on the event loop.
+                .publishOn(Schedulers.boundedElastic())
+                .map(data -> Report.builder()
+                        .statistic(statisticService.calculateStatisticReport(data.getT1(), data.getT2(), duration))
+                        .build());
+    }
+
+    private Mono<MarketData> getMarketData(String symbol, Flux<Candle> candles) {
+        return candles.collectList()
+                .map(list -> {
+                    if (!list.isEmpty()) {
+                        watermarkService.advance(symbol, list.getLast().getCloseTime());
+                    }
+                    return MarketData.builder()
+                            .symbol(symbol)
+                            .candles(list)
+                            .build();
+                });
+    }
+
+    private record ReportKey(String symbol, String duration, Instant watermark) {}
+}
@@ -0,0 +1,212 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.mapper.KlineMapper;
+import com.dzenthai.cryptora.model.context.KlineColumns;
+import com.dzenthai.cryptora.model.dto.Analysis;
+import com.dzenthai.cryptora.model.dto.Kline;
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.util.KlineParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+@Slf4j
+@Service
+@Profile("replay")
+public class ReplayService {
+
+    /**
+     * Replays recorded candles through persist and analysis on a virtual clock. The clock advances one step
+     * at a time, every step persists the candles that closed within it and analyses each symbol that received
+     * candles, like the scheduler does once per minute. Wall time is paced at {@code speed} times real time,
+     * a non-positive speed runs unpaced. Each analysis is appended to the signal log as one tab-separated
+     * line stamped with virtual time, so two runs over the same recording can be compared with diff.
+     */
+
+    private static final String BINANCE_SUFFIX = ".json";
+
+    private static final String EXPORT_SUFFIX = ".ndjson";
+
+    private final CryptoraProperties cryptoraProperties;
+
+    private final CandleService candleService;
+
+    private final AnalysisService analysisService;
+
+    private final KlineMapper klineMapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final ConfigurableApplicationContext applicationContext;
+
+    public ReplayService(
+            CryptoraProperties cryptoraProperties,
+            CandleService candleService,
+            AnalysisService analysisService,
+            KlineMapper klineMapper,
+            ObjectMapper objectMapper,
+            ConfigurableApplicationContext applicationContext
+    ) {
+        this.cryptoraProperties = cryptoraProperties;
+        this.candleService = candleService;
+        this.analysisService = analysisService;
+        this.klineMapper = klineMapper;
+        this.objectMapper = objectMapper;
+        this.applicationContext = applicationContext;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replay() {
+        var replay = cryptoraProperties.replay();
+        NavigableMap<Instant, List<Candle>> timeline = loadTimeline(Path.of(replay.source()));
+        if (timeline.isEmpty()) {
+            log.warn("ReplayService | Nothing to replay in {}", replay.source());
+            finish();
+            return;
+        }
+
+        Path output = Path.of(replay.output());
+        int maxBars = cryptoraProperties.tuning().series().maxBars();
+        long candleCount = 0;
+        long signalCount = 0;
+        long wallStart = System.nanoTime();
+        Instant virtualStart = timeline.firstKey();
+        Instant virtualEnd = timeline.lastKey();
+
+        log.info("ReplayService | Replaying {} to {} at {}x into {}",
+                virtualStart, virtualEnd, replay.speed(), output);
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            Instant stepStart = virtualStart;
+            while (!timeline.isEmpty()) {
+                Instant stepEnd = stepStart.plus(replay.step());
+                pace(Duration.between(virtualStart, stepEnd), wallStart, replay.speed());
+
+                Map<String, List<Candle>> closed = new TreeMap<>();
+                NavigableMap<Instant, List<Candle>> step = timeline.headMap(stepEnd, false);
+                step.values().forEach(candles -> candles.forEach(candle ->
+                        closed.computeIfAbsent(candle.getSymbol(), symbol -> new ArrayList<>()).add(candle)));
+                step.clear();
+
+                for (var entry : closed.entrySet()) {
+                    candleService.saveCandles(entry.getKey(), entry.getValue());
+                    candleCount += entry.getValue().size();
+
+                    var marketData = candleService.getMarketData(entry.getKey(), Duration.ZERO, maxBars);
+                    writeSignal(writer, stepEnd, analysisService.getAnalysis(marketData));
+                    signalCount++;
+                }
+                stepStart = stepEnd;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the signal log " + output, e);
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - wallStart);
+        double seconds = Math.max(elapsed.toNanos() / 1e9, 1e-9);
+        log.info("ReplayService | Replayed {} of market data, {} candles and {} signals in {} ms, "
+                        + "{} candles/s, {}x real time",
+                Duration.between(virtualStart, virtualEnd), candleCount, signalCount, elapsed.toMillis(),
+                String.format(Locale.ROOT, "%.0f", candleCount / seconds),
+                String.format(Locale.ROOT, "%.0f", Duration.between(virtualStart, virtualEnd).toSeconds() / seconds));
+        finish();
+    }
+
+    private void pace(Duration virtualElapsed, long wallStart, double speed) {
+        if (speed <= 0) return;
+        long targetNanos = (long) (virtualElapsed.toNanos() / speed);
+        long sleepNanos = targetNanos - (System.nanoTime() - wallStart);
+        if (sleepNanos <= 0) return;
+        try {
+            Thread.sleep(Duration.ofNanos(sleepNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeSignal(BufferedWriter writer, Instant time, Analysis analysis) throws IOException {
+        writer.write(String.join("\t",
+                time.toString(),
+                analysis.symbol(),
+                String.valueOf(analysis.action()),
+                String.valueOf(analysis.marketState()),
+                String.valueOf(analysis.volatility()),
+                String.valueOf(analysis.trendStrength()),
+                String.valueOf(analysis.liquidity()),
+                String.valueOf(analysis.riskLevel()),
+                String.valueOf(analysis.confidenceScore())));
+        writer.newLine();
+    }
+
+    private void finish() {
+        if (cryptoraProperties.replay().exitOnCompletion()) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    /**
+     * Reads Binance kline responses named {@code <SYMBOL>.json} and candle exports ({@code *.ndjson}) into one
+     * timeline keyed by close time.
+     */
+    private NavigableMap<Instant, List<Candle>> loadTimeline(Path source) {
+        List<Candle> candles = new ArrayList<>();
+        try (Stream<Path> files = Files.list(source)) {
+            for (Path file : files.sorted().toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(BINANCE_SUFFIX)) {
+                    String symbol = name.substring(0, name.length() - BINANCE_SUFFIX.length());
+                    candles.addAll(readBinance(file, symbol));
+                } else if (name.endsWith(EXPORT_SUFFIX)) {
+                    candles.addAll(readExport(file));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the replay source " + source, e);
+        }
+        log.info("ReplayService | Loaded {} candles from {}", candles.size(), source);
+        return candles.stream()
+                .collect(Collectors.groupingBy(Candle::getCloseTime, TreeMap::new, Collectors.toList()));
+    }
+
+    private List<Candle> readBinance(Path file, String symbol) throws IOException {
+        KlineColumns klines = new KlineColumns(1024);
+        KlineParser.parse(Files.readAllBytes(file), klines);
+        return candleService.buildCandles(symbol, klines);
+    }
+
+    private List<Candle> readExport(Path file) throws IOException {
+        List<Candle> candles = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                candles.add(klineMapper.mapToCandle(objectMapper.readValue(line, Kline.class)));
+            }
+        }
+        return candles;
+    }
+}
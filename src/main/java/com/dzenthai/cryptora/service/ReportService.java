@@ -1,9 +1,19 @@
 package com.dzenthai.cryptora.service;
 
 import com.dzenthai.cryptora.model.dto.Report;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
 
 @Slf4j
 @Service
@@ -11,17 +21,90 @@ public class ReportService {
 
     private final StatisticService statisticService;
 
+    private final WatermarkService watermarkService;
+
+    private final SymbolRegistry symbolRegistry;
+
+    private final Map<ReportKey, CompletableFuture<Report>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter computedCounter;
+
+    private final Counter coalescedCounter;
+
+    private final MeterRegistry meterRegistry;
+
     public ReportService(
-            StatisticService statisticService
+            StatisticService statisticService,
+            WatermarkService watermarkService,
+            SymbolRegistry symbolRegistry,
+            MeterRegistry meterRegistry
     ) {
         this.statisticService = statisticService;
+        this.watermarkService = watermarkService;
+        this.symbolRegistry = symbolRegistry;
+        this.meterRegistry = meterRegistry;
+        this.computedCounter = Counter.builder("cryptora.report.requests")
+                .description("Report requests by whether they computed the report or joined an in-flight one")
+                .tag("outcome", "computed")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("cryptora.report.requests")
+                .description("Report requests by whether they computed the report or joined an in-flight one")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
     }
 
     public Report getReport(String asset, String duration) {
         log.debug("ReportService | Receiving report for {}", asset);
-        return Report.builder()
-                .statistic(statisticService.calculateStatisticReport(asset, duration))
-                .build();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return getOrJoinReport(asset, duration);
+        } finally {
+            sample.stop(Timer.builder("cryptora.report.latency")
+                    .description("Report latency by requested window")
+                    .tag("window", statisticService.getWindowBucket(duration))
+                    .register(meterRegistry));
+        }
     }
-}
 
+    private Report getOrJoinReport(String asset, String duration) {
+        // Keyed on the resolved symbol, so btc and BTCUSDT join the same computation.
+        var key = new ReportKey(
+                symbolRegistry.resolve(asset),
+                duration == null ? "" : duration.toLowerCase(Locale.ROOT),
+                watermarkService.getWatermark(asset).orElse(null)
+        );
+
+        var computation = new CompletableFuture<Report>();
+        var existing = inFlight.putIfAbsent(key, computation);
+        if (existing != null) {
+            log.debug("ReportService | Joining in-flight report, key: {}", key);
+            coalescedCounter.increment();
+            return join(existing);
+        }
+
+        computedCounter.increment();
+        try {
+            var report = Report.builder()
+                    .statistic(statisticService.calculateStatisticReport(asset, duration))
+                    .build();
+            computation.complete(report);
+            return report;
+        } catch (Throwable e) {
+            computation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, computation);
+        }
+    }
+
+    private Report join(CompletableFuture<Report> computation) {
+        try {
+            return computation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private record ReportKey(String symbol, String duration, Instant watermark) {}
+}
@@ -0,0 +1,208 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.model.context.CandleSeries;
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.repository.CandleRepository;
+import com.dzenthai.cryptora.util.Workloads;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+
+@Slf4j
+@Service
+public class SeriesCache {
+
+    /**
+     * Keeps the latest max bars of every analysed symbol in off-heap candle series, so the scheduled analysis
+     * reads no candles from the database once a symbol is loaded and a large universe stays resident without
+     * growing the heap. New candles are appended as they are persisted, keeping only those closing after the
+     * newest cached one, which mirrors the insert-if-absent semantics of the store.
+     */
+
+    private final CryptoraProperties cryptoraProperties;
+
+    private final CandleRepository candleRepository;
+
+    private final SymbolRegistry symbolRegistry;
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    public SeriesCache(
+            CryptoraProperties cryptoraProperties,
+            CandleRepository candleRepository,
+            SymbolRegistry symbolRegistry
+    ) {
+        this.cryptoraProperties = cryptoraProperties;
+        this.candleRepository = candleRepository;
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    /**
+     * Applies {@code reader} to the cached series of a symbol, loading it on first use. The series must not
+     * escape the reader, appends may overwrite its records afterwards.
+     */
+    public <T> T read(String baseAsset, Function<CandleSeries, T> reader) {
+        String symbol = toSymbol(baseAsset);
+        Series symbolSeries = series.computeIfAbsent(symbol, s -> new Series(s, getMaxBars()));
+
+        synchronized (symbolSeries) {
+            if (!symbolSeries.loaded) {
+                log.debug("SeriesCache | Loading series, symbol: {}", symbol);
+                symbolSeries.append(Workloads.analysis(() ->
+                        candleRepository.findWindowBySymbol(symbol, Duration.ZERO, getMaxBars())));
+                symbolSeries.loaded = true;
+            }
+            return reader.apply(symbolSeries.candles);
+        }
+    }
+
+    public void append(String baseAsset, List<Candle> candles) {
+        Series symbolSeries = series.get(toSymbol(baseAsset));
+        if (symbolSeries == null) return;
+
+        synchronized (symbolSeries) {
+            // A series that is not loaded yet reads the persisted rows on first use.
+            if (symbolSeries.loaded) {
+                symbolSeries.append(candles);
+            }
+        }
+    }
+
+    /**
+     * Appends the candles another node persisted for a symbol up to {@code latest}, its newest stored close
+     * time. A series that is not loaded yet reads them on first use.
+     */
+    public void catchUp(String baseAsset, Instant latest) {
+        String symbol = toSymbol(baseAsset);
+        Series symbolSeries = series.get(symbol);
+        if (symbolSeries == null) return;
+
+        Instant since;
+        synchronized (symbolSeries) {
+            if (!symbolSeries.loaded) return;
+            CandleSeries candles = symbolSeries.candles;
+            since = candles.isEmpty() ? null : Instant.ofEpochMilli(candles.closeTime(candles.size() - 1));
+            if (since != null && !latest.isAfter(since)) return;
+        }
+        List<Candle> candles = Workloads.analysis(() -> {
+            if (since == null) return candleRepository.findWindowBySymbol(symbol, Duration.ZERO, getMaxBars());
+            List<Candle> persisted = new ArrayList<>();
+            candleRepository.streamBySymbol(symbol, since, latest, 0, persisted::add);
+            return persisted;
+        });
+        append(symbol, candles);
+    }
+
+    /**
+     * Writes every loaded series as its symbol followed by fixed-width candle records.
+     */
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        List<Map.Entry<String, Series>> loaded = series.entrySet().stream()
+                .filter(entry -> entry.getValue().loaded)
+                .toList();
+        out.writeInt(loaded.size());
+        for (var entry : loaded) {
+            synchronized (entry.getValue()) {
+                CandleSeries candles = entry.getValue().candles;
+                out.writeUTF(entry.getKey());
+                out.writeInt(candles.size());
+                for (int i = 0; i < candles.size(); i++) {
+                    out.writeLong(candles.openTime(i));
+                    out.writeLong(candles.closeTime(i));
+                    out.writeDouble(candles.openPrice(i));
+                    out.writeDouble(candles.highPrice(i));
+                    out.writeDouble(candles.lowPrice(i));
+                    out.writeDouble(candles.closePrice(i));
+                    out.writeDouble(candles.volume(i));
+                    out.writeDouble(candles.amount(i));
+                    out.writeLong(candles.trades(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Restores the series of a snapshot. A series is kept only when the store still holds its newest candle,
+     * the candles persisted after it are read from the store; otherwise it is left to load on first use.
+     */
+    public void readSnapshot(DataInputStream in) throws IOException {
+        int symbols = in.readInt();
+        for (int s = 0; s < symbols; s++) {
+            String symbol = in.readUTF();
+            int count = in.readInt();
+            List<Candle> candles = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                candles.add(Candle.builder()
+                        .symbol(symbol)
+                        .openTime(Instant.ofEpochMilli(in.readLong()))
+                        .closeTime(Instant.ofEpochMilli(in.readLong()))
+                        .openPrice(in.readDouble())
+                        .highPrice(in.readDouble())
+                        .lowPrice(in.readDouble())
+                        .closePrice(in.readDouble())
+                        .volume(in.readDouble())
+                        .amount(in.readDouble())
+                        .trades(in.readLong())
+                        .build());
+            }
+            restore(symbol, candles);
+        }
+    }
+
+    private void restore(String symbol, List<Candle> candles) {
+        if (candles.isEmpty()) return;
+        Instant snapshotLatest = candles.getLast().getCloseTime();
+        List<Candle> latest = Workloads.analysis(() -> candleRepository.findWindowBySymbol(symbol, Duration.ZERO, 1));
+        if (latest.isEmpty() || latest.getLast().getCloseTime().isBefore(snapshotLatest)) {
+            log.info("SeriesCache | Snapshot is ahead of the store, discarding it, symbol: {}", symbol);
+            return;
+        }
+
+        Series symbolSeries = new Series(symbol, getMaxBars());
+        symbolSeries.append(candles);
+        int before = symbolSeries.candles.size();
+        Workloads.analysis(() ->
+                candleRepository.streamBySymbol(symbol, snapshotLatest, null, 0, symbolSeries.candles::append));
+        symbolSeries.loaded = true;
+        series.put(symbol, symbolSeries);
+        log.info("SeriesCache | Restored series, symbol: {}, snapshot bars: {}, bars after tail: {}",
+                symbol, before, symbolSeries.candles.size());
+    }
+
+    private int getMaxBars() {
+        return cryptoraProperties.tuning().series().maxBars();
+    }
+
+    private String toSymbol(String baseAsset) {
+        return symbolRegistry.resolve(baseAsset);
+    }
+
+    private static final class Series {
+
+        private final CandleSeries candles;
+
+        // Read without the lock when the series are snapshotted.
+        private volatile boolean loaded;
+
+        private Series(String symbol, int maxBars) {
+            this.candles = new CandleSeries(symbol, maxBars);
+        }
+
+        private void append(List<Candle> toAppend) {
+            toAppend.forEach(candles::append);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.repository.LeaseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+
+@Slf4j
+@Service
+public class ShardService {
+
+    /**
+     * Splits the fetch and analysis of symbols across instances. Every heartbeat the node renews its leases,
+     * hands back those above its fair share of ceil(symbols / live nodes) and takes free or expired ones up
+     * to that share, so symbols spread out as nodes join and are picked up again when a node stops
+     * heartbeating. Reports are not sharded, any node answers for any symbol. With clustering disabled the
+     * node owns every symbol. Clustering is read from the properties rather than decided by a bean condition,
+     * so an AOT-processed build can still switch it on at runtime.
+     */
+
+    private final CryptoraProperties cryptoraProperties;
+
+    private final LeaseRepository leaseRepository;
+
+    private final SymbolRegistry symbolRegistry;
+
+    private final String nodeId;
+
+    private volatile Set<String> ownedSymbols = Set.of();
+
+    public ShardService(
+            CryptoraProperties cryptoraProperties,
+            ObjectProvider<LeaseRepository> leaseRepository,
+            SymbolRegistry symbolRegistry,
+            MeterRegistry meterRegistry
+    ) {
+        this.cryptoraProperties = cryptoraProperties;
+        this.leaseRepository = cryptoraProperties.cluster().enabled()
+                ? leaseRepository.getIfAvailable()
+                : null;
+        this.symbolRegistry = symbolRegistry;
+        String configuredNodeId = cryptoraProperties.cluster().nodeId();
+        this.nodeId = configuredNodeId == null || configuredNodeId.isBlank()
+                ? UUID.randomUUID().toString()
+                : configuredNodeId;
+
+        Gauge.builder("cryptora.cluster.owned.symbols", () -> getOwnedSymbols().size())
+                .description("Symbols this node fetches and analyses")
+                .register(meterRegistry);
+    }
+
+    public boolean owns(String symbol) {
+        return leaseRepository == null || ownedSymbols.contains(symbol.toUpperCase(Locale.ROOT));
+    }
+
+    public Set<String> getOwnedSymbols() {
+        return leaseRepository == null ? Set.copyOf(symbolRegistry.getSymbols()) : ownedSymbols;
+    }
+
+    /**
+     * Renews and rebalances the leases of this node. Also called by the warm-up, so it may run before the
+     * first heartbeat.
+     */
+    @Scheduled(fixedRateString = "${cryptora.cluster.heartbeat}")
+    public synchronized void rebalance() {
+        if (leaseRepository == null) return;
+        Duration ttl = cryptoraProperties.cluster().leaseTtl();
+        try {
+            leaseRepository.heartbeat(nodeId);
+            leaseRepository.deleteDeadNodes(ttl);
+
+            List<String> symbols = symbolRegistry.getSymbols();
+            int nodes = Math.max(1, leaseRepository.countLiveNodes(ttl));
+            int share = Math.ceilDiv(symbols.size(), nodes);
+
+            TreeSet<String> held = new TreeSet<>(leaseRepository.findOwnedSymbols(nodeId));
+            Set<String> universe = Set.copyOf(symbols);
+            for (String symbol : List.copyOf(held)) {
+                // Symbols removed from the universe are handed back.
+                if (!universe.contains(symbol)) {
+                    leaseRepository.release(symbol, nodeId);
+                    held.remove(symbol);
+                }
+            }
+            while (held.size() > share) {
+                leaseRepository.release(held.pollLast(), nodeId);
+            }
+            held.removeIf(symbol -> !leaseRepository.tryAcquire(symbol, nodeId, ttl));
+            for (String symbol : symbols) {
+                if (held.size() >= share) break;
+                if (!held.contains(symbol) && leaseRepository.tryAcquire(symbol, nodeId, ttl)) {
+                    held.add(symbol);
+                }
+            }
+
+            if (!held.equals(ownedSymbols)) {
+                log.info("ShardService | Node {} of {} now owns {}", nodeId, nodes, held);
+            }
+            ownedSymbols = Set.copyOf(held);
+        } catch (Exception e) {
+            // Without a renewed lease another node may already have taken over, so stop working on any symbol.
+            log.error("ShardService | Lease renewal failed, dropping all symbols, node: {}", nodeId, e);
+            ownedSymbols = Set.of();
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (leaseRepository == null) return;
+        ownedSymbols = Set.of();
+        try {
+            leaseRepository.deleteNode(nodeId);
+            log.info("ShardService | Node {} left the cluster", nodeId);
+        } catch (Exception e) {
+            log.warn("ShardService | Unable to release leases, they expire on their own, node: {}", nodeId, e);
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.dzenthai.cryptora.service;
 
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.model.context.CandleAggregate;
+import com.dzenthai.cryptora.model.context.MarketData;
 import com.dzenthai.cryptora.model.dto.*;
 import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.model.enums.Rollup;
+import com.dzenthai.cryptora.monitoring.StatisticEvent;
+import com.dzenthai.cryptora.util.Durations;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -9,7 +15,6 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.Comparator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -21,56 +26,215 @@ import java.util.function.Function;
 @Service
 public class StatisticService {
 
+    private final CryptoraProperties cryptoraProperties;
+
     private final AnalysisService analysisService;
 
     private final CandleService candleService;
 
+    private final QuantileService quantileService;
+
     public StatisticService(
+            CryptoraProperties cryptoraProperties,
             AnalysisService analysisService,
-            CandleService candleService
+            CandleService candleService,
+            QuantileService quantileService
     ) {
+        this.cryptoraProperties = cryptoraProperties;
         this.analysisService = analysisService;
         this.candleService = candleService;
+        this.quantileService = quantileService;
     }
 
     public Statistic calculateStatisticReport(String baseAsset, String duration) {
         log.debug("StatisticService | Calculating statistic, base asset: {}", baseAsset);
-        List<Candle> candles = candleService.getCandleBySymbol(baseAsset);
-        if (candles == null || candles.isEmpty()) {
+        Duration window = parseDuration(duration);
+        Rollup rollup = getRollup(window);
+        if (rollup == null && isAggregated(window)) {
+            return calculateAggregatedReport(baseAsset, window, duration);
+        }
+        if (rollup == null) {
+            MarketData marketData = candleService.getMarketData(baseAsset, window, getRequiredBars());
+            return calculateStatisticReport(marketData, duration);
+        }
+        return calculateStatisticReport(
+                candleService.getRollupMarketData(baseAsset, rollup, window),
+                candleService.getMarketData(baseAsset, Duration.ZERO, getRequiredBars()),
+                duration);
+    }
+
+    public Statistic calculateStatisticReport(MarketData marketData, String duration) {
+        return calculateStatisticReport(marketData, marketData, duration);
+    }
+
+    /**
+     * Calculates the statistics of a window from {@code marketData} and the analysis and current values from
+     * {@code recent}, the latest one-minute candles, so the signal means the same whatever bars the statistics
+     * were computed on.
+     */
+    public Statistic calculateStatisticReport(MarketData marketData, MarketData recent, String duration) {
+        log.debug("StatisticService | Calculating statistic from market data, symbol: {}", marketData.symbol());
+        StatisticEvent statisticEvent = new StatisticEvent();
+        statisticEvent.begin();
+        Duration window = parseDuration(duration);
+        if (marketData.isEmpty() || recent.isEmpty()) {
             throw new NoSuchElementException("No data found, base asset: %s, duration: %s"
-                    .formatted(baseAsset, duration));
+                    .formatted(marketData.symbol(), duration));
         }
-        try {
-            log.debug("StatisticService | Filtering list of candles by duration, base asset: {}, duration: {}",
-                    baseAsset, duration);
-
-            Instant beginTime = duration == null || duration.isBlank()
-                    ? getBeginTime(candles)
-                    : getBeginTime(candles, duration);
-            log.debug("StatisticService | Statistic begin time: {}", beginTime);
-
-            Instant endTime = getEndTime(candles);
-            log.debug("StatisticService | Statistic end time: {}", endTime);
-
-            var filteredCandles = candles.stream()
-                    .filter(q -> !q.getCloseTime().isBefore(beginTime) && !q.getOpenTime().isAfter(endTime))
-                    .toList();
-
-            return Statistic.builder()
-                    .analysis(analysisService.getAnalysis(baseAsset))
-                    .current(getCurrent(candles))
-                    .average(getAverage(filteredCandles))
-                    .max(calculateMaxValues(filteredCandles))
-                    .min(calculateMinValues(filteredCandles))
-                    .total(getTotal(filteredCandles))
-                    .info(getInfo(filteredCandles, beginTime, endTime))
-                    .build();
+        List<Candle> candles = marketData.candles();
+
+        log.debug("StatisticService | Filtering list of candles by duration, base asset: {}, duration: {}",
+                marketData.symbol(), duration);
+
+        Instant beginTime = window == null
+                ? getBeginTime(candles)
+                : getBeginTime(candles, window);
+        log.debug("StatisticService | Statistic begin time: {}", beginTime);
+
+        Instant endTime = getEndTime(candles);
+        log.debug("StatisticService | Statistic end time: {}", endTime);
+
+        var filteredCandles = candles.stream()
+                .filter(q -> !q.getCloseTime().isBefore(beginTime) && !q.getOpenTime().isAfter(endTime))
+                .toList();
+
+        Statistic statistic = Statistic.builder()
+                .analysis(analysisService.getAnalysis(recent))
+                .current(getCurrent(recent.candles()))
+                .average(getAverage(filteredCandles))
+                .max(calculateMaxValues(filteredCandles))
+                .min(calculateMinValues(filteredCandles))
+                .total(getTotal(filteredCandles))
+                .percentiles(quantileService.getPercentiles(marketData.symbol(), beginTime, endTime))
+                .info(getInfo(filteredCandles, beginTime, endTime))
+                .build();
+
+        statisticEvent.symbol = marketData.symbol();
+        statisticEvent.duration = duration;
+        statisticEvent.rows = candles.size();
+        statisticEvent.commit();
+        return statistic;
+    }
 
+    /**
+     * Calculates the report of a large window from aggregates computed by the store, reading only the
+     * latest bars needed by the analysis and the current values instead of every candle of the window.
+     */
+    private Statistic calculateAggregatedReport(String baseAsset, Duration window, String duration) {
+        log.debug("StatisticService | Calculating statistic from aggregates, base asset: {}, duration: {}",
+                baseAsset, duration);
+        StatisticEvent statisticEvent = new StatisticEvent();
+        statisticEvent.begin();
+        MarketData recent = candleService.getMarketData(baseAsset, Duration.ZERO, getRequiredBars());
+        CandleAggregate aggregate = candleService.getCandleAggregate(baseAsset, window);
+        if (recent.isEmpty() || aggregate.isEmpty()) {
+            throw new NoSuchElementException("No data found, base asset: %s, duration: %s"
+                    .formatted(recent.symbol(), duration));
+        }
+
+        Instant endTime = aggregate.lastCloseTime();
+        Instant requestedBegin = endTime.minus(window);
+        Instant beginTime = requestedBegin.isBefore(aggregate.firstOpenTime())
+                ? aggregate.firstOpenTime()
+                : requestedBegin;
+
+        Statistic statistic = Statistic.builder()
+                .analysis(analysisService.getAnalysis(recent))
+                .current(getCurrent(recent.candles()))
+                .average(Average.builder()
+                        .openPrice(round8(aggregate.avgOpenPrice()))
+                        .closePrice(round8(aggregate.avgClosePrice()))
+                        .highPrice(round8(aggregate.avgHighPrice()))
+                        .lowPrice(round8(aggregate.avgLowPrice()))
+                        .tradePrice(Double.compare(aggregate.totalVolume(), 0.0) > 0
+                                ? round8(aggregate.weightedPriceSum() / aggregate.totalVolume())
+                                : 0.0)
+                        .priceRange(round8(aggregate.avgPriceRange()))
+                        .build())
+                .max(Max.builder()
+                        .openPrice(round8(aggregate.maxOpenPrice()))
+                        .closePrice(round8(aggregate.maxClosePrice()))
+                        .highPrice(round8(aggregate.maxHighPrice()))
+                        .lowPrice(round8(aggregate.maxLowPrice()))
+                        .priceRange(round8(aggregate.maxPriceRange()))
+                        .volume(round8(aggregate.maxVolume()))
+                        .amount(round8(aggregate.maxAmount()))
+                        .build())
+                .min(Min.builder()
+                        .openPrice(round8(aggregate.minOpenPrice()))
+                        .closePrice(round8(aggregate.minClosePrice()))
+                        .highPrice(round8(aggregate.minHighPrice()))
+                        .lowPrice(round8(aggregate.minLowPrice()))
+                        .priceRange(round8(aggregate.minPriceRange()))
+                        .volume(round8(aggregate.minVolume()))
+                        .amount(round8(aggregate.minAmount()))
+                        .build())
+                .total(Total.builder()
+                        .volume(round8(aggregate.totalVolume()))
+                        .amount(round8(aggregate.totalAmount()))
+                        .build())
+                .percentiles(quantileService.getPercentiles(recent.symbol(), beginTime, endTime))
+                .info(Info.builder()
+                        .entriesCount(aggregate.entries())
+                        .beginTime(beginTime)
+                        .endTime(endTime)
+                        .duration(Duration.between(beginTime, endTime))
+                        .build())
+                .build();
+
+        statisticEvent.symbol = recent.symbol();
+        statisticEvent.duration = duration;
+        statisticEvent.rows = aggregate.entries();
+        statisticEvent.commit();
+        return statistic;
+    }
+
+    private boolean isAggregated(Duration window) {
+        // Candles are one-minute bars, so the minutes of a window estimate the rows it holds.
+        return window != null && window.toMinutes() > cryptoraProperties.aggregation().rowThreshold();
+    }
+
+    public int getRequiredBars() {
+        return cryptoraProperties.tuning().series().maxBars();
+    }
+
+    /**
+     * Picks the rollup serving a window longer than the raw candles are kept, hourly up to a limit and daily
+     * beyond it, or null when the raw candles cover the window.
+     */
+    public Rollup getRollup(Duration window) {
+        var rollups = cryptoraProperties.rollups();
+        if (window == null || window.compareTo(rollups.rawWindow()) <= 0) return null;
+        return window.compareTo(rollups.hourlyWindow()) <= 0 ? Rollup.HOURLY : Rollup.DAILY;
+    }
+
+    public Duration parseDuration(String duration) {
+        if (duration == null || duration.isBlank()) return null;
+        try {
+            return Durations.parse(duration);
         } catch (NumberFormatException e) {
             throw new NumberFormatException("Invalid duration value: %s".formatted(duration));
         }
     }
 
+    /**
+     * Buckets a requested duration into the window tag of the report metrics.
+     */
+    public String getWindowBucket(String duration) {
+        Duration window;
+        try {
+            window = parseDuration(duration);
+        } catch (RuntimeException e) {
+            return "invalid";
+        }
+        if (window == null) return "all";
+        if (window.compareTo(Duration.ofHours(1)) <= 0) return "1h";
+        if (window.compareTo(Duration.ofDays(1)) <= 0) return "1d";
+        if (window.compareTo(Duration.ofDays(7)) <= 0) return "7d";
+        if (window.compareTo(Duration.ofDays(30)) <= 0) return "30d";
+        return "over_30d";
+    }
+
     private double round8(double value) {
         return BigDecimal.valueOf(value).setScale(8, RoundingMode.HALF_UP).doubleValue();
     }
@@ -216,22 +380,12 @@ public class StatisticService {
         return candles.getFirst().getOpenTime();
     }
 
-    private Instant getBeginTime(List<Candle> candles, String duration) {
+    private Instant getBeginTime(List<Candle> candles, Duration window) {
         log.trace("StatisticService | Receiving candle begin time with duration");
         var endTime = getEndTime(candles);
 
-        long value = Long.parseLong(duration.substring(0, duration.length() - 1));
-        String unit = duration.substring(duration.length() - 1).toLowerCase();
-
         Instant earliestAvailable = candles.getFirst().getOpenTime();
-
-        Instant requestedBegin = switch (unit) {
-            case "d" -> endTime.minus(value, ChronoUnit.DAYS);
-            case "h" -> endTime.minus(value, ChronoUnit.HOURS);
-            case "m" -> endTime.minus(value, ChronoUnit.MINUTES);
-            case "s" -> endTime.minus(value, ChronoUnit.SECONDS);
-            default -> throw new IllegalArgumentException("Unknown duration unit: %s".formatted(unit));
-        };
+        Instant requestedBegin = endTime.minus(window);
 
         return requestedBegin.isBefore(earliestAvailable) ? earliestAvailable : requestedBegin;
     }
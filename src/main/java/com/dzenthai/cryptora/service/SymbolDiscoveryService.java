@@ -0,0 +1,117 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+
+@Slf4j
+@Service
+public class SymbolDiscoveryService {
+
+    /**
+     * Loads the trading symbols quoted in the configured quote assets from exchangeInfo when the application
+     * starts and on every refresh, keeps those above the minimum 24h quote volume, the most traded first up
+     * to the maximum, and hands them to the registry. A failed refresh keeps the previous universe. Nothing
+     * is loaded unless discovery is enabled, which is checked on every refresh so it can be switched at runtime.
+     */
+
+    private final CryptoraProperties cryptoraProperties;
+
+    private final SymbolRegistry symbolRegistry;
+
+    private final ObjectMapper objectMapper;
+
+    private final String apiUrl;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    public SymbolDiscoveryService(
+            CryptoraProperties cryptoraProperties,
+            SymbolRegistry symbolRegistry,
+            ObjectMapper objectMapper,
+            @Value("${binance.api.url}") String apiUrl
+    ) {
+        this.cryptoraProperties = cryptoraProperties;
+        this.symbolRegistry = symbolRegistry;
+        this.objectMapper = objectMapper;
+        this.apiUrl = apiUrl;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    @Scheduled(
+            fixedRateString = "${cryptora.symbols.discovery.refresh}",
+            initialDelayString = "${cryptora.symbols.discovery.refresh}"
+    )
+    public void refresh() {
+        var discovery = cryptoraProperties.symbols().discovery();
+        if (!discovery.enabled()) return;
+        try {
+            List<String> quoteAssets = symbolRegistry.getQuoteAssets();
+            List<String> symbols = StreamSupport.stream(get("/api/v3/exchangeInfo").path("symbols").spliterator(), false)
+                    .filter(symbol -> "TRADING".equals(symbol.path("status").asText()))
+                    .filter(symbol -> quoteAssets.contains(symbol.path("quoteAsset").asText()))
+                    .map(symbol -> symbol.path("symbol").asText())
+                    .toList();
+
+            if (discovery.minQuoteVolume() > 0 || discovery.maxSymbols() > 0) {
+                Map<String, Double> volumes = getQuoteVolumes();
+                symbols = symbols.stream()
+                        .filter(symbol -> volumes.getOrDefault(symbol, 0.0) >= discovery.minQuoteVolume())
+                        .sorted(Comparator.comparing((String symbol) -> volumes.getOrDefault(symbol, 0.0)).reversed())
+                        .limit(discovery.maxSymbols() > 0 ? discovery.maxSymbols() : Long.MAX_VALUE)
+                        .toList();
+            }
+            symbolRegistry.replaceDiscovered(symbols);
+            log.debug("SymbolDiscoveryService | Discovered {} symbols", symbols.size());
+        } catch (IOException e) {
+            log.error("SymbolDiscoveryService | Unable to load exchange info, keeping the current symbols", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Double> getQuoteVolumes() throws IOException, InterruptedException {
+        Map<String, Double> volumes = new HashMap<>();
+        for (JsonNode ticker : get("/api/v3/ticker/24hr?type=MINI")) {
+            volumes.put(ticker.path("symbol").asText(), ticker.path("quoteVolume").asDouble());
+        }
+        return volumes;
+    }
+
+    private JsonNode get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(apiUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("Unexpected status %d for %s".formatted(response.statusCode(), path));
+        }
+        return objectMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,149 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+
+@Slf4j
+@Service
+public class SymbolRegistry {
+
+    /**
+     * The symbols fetched and analysed: the configured ones, plus those discovered from the exchange, plus
+     * those added at runtime, minus the configured and runtime exclusions. Every symbol that was part of the
+     * universe is interned to a compact id that stays stable for the life of the process, and resolving a
+     * symbol returns its interned string, so the candles of a symbol share one instance. Runtime edits are
+     * kept in memory only.
+     */
+
+    private final CryptoraProperties cryptoraProperties;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private final List<String> symbolsById = new ArrayList<>();
+
+    private final Set<String> added = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+
+    private volatile Set<String> discovered = Set.of();
+
+    private volatile List<String> symbols = List.of();
+
+    public SymbolRegistry(CryptoraProperties cryptoraProperties) {
+        this.cryptoraProperties = cryptoraProperties;
+        rebuild();
+    }
+
+    public List<String> getSymbols() {
+        return symbols;
+    }
+
+    public boolean contains(String symbol) {
+        return symbols.contains(symbol.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Resolves a symbol or a base asset to a symbol: a known symbol as is, a base asset paired with the first
+     * quote asset it is known with, or, for unknown input, with the first configured quote asset.
+     */
+    public String resolve(String asset) {
+        String symbol = asset.toUpperCase(Locale.ROOT);
+        Integer id = ids.get(symbol);
+        if (id != null) return getSymbol(id);
+
+        List<String> quoteAssets = getQuoteAssets();
+        for (String quoteAsset : quoteAssets) {
+            id = ids.get(symbol + quoteAsset);
+            if (id != null) return getSymbol(id);
+        }
+        if (getQuoteAsset(symbol) != null) return symbol;
+        return symbol + quoteAssets.getFirst();
+    }
+
+    /**
+     * The configured quote asset a symbol ends with, or null.
+     */
+    public String getQuoteAsset(String symbol) {
+        return getQuoteAssets().stream()
+                .filter(quoteAsset -> symbol.length() > quoteAsset.length() && symbol.endsWith(quoteAsset))
+                .findFirst()
+                .orElse(null);
+    }
+
+    public List<String> getQuoteAssets() {
+        return cryptoraProperties.symbols().quoteAssets().stream()
+                .map(quoteAsset -> quoteAsset.toUpperCase(Locale.ROOT))
+                .toList();
+    }
+
+    public Integer getId(String symbol) {
+        return ids.get(symbol.toUpperCase(Locale.ROOT));
+    }
+
+    public synchronized String getSymbol(int id) {
+        return symbolsById.get(id);
+    }
+
+    public void add(String symbol) {
+        String upper = symbol.toUpperCase(Locale.ROOT);
+        removed.remove(upper);
+        added.add(upper);
+        rebuild();
+    }
+
+    public void remove(String symbol) {
+        String upper = symbol.toUpperCase(Locale.ROOT);
+        added.remove(upper);
+        removed.add(upper);
+        rebuild();
+    }
+
+    public void replaceDiscovered(Collection<String> symbols) {
+        discovered = Set.copyOf(symbols.stream().map(symbol -> symbol.toUpperCase(Locale.ROOT)).toList());
+        rebuild();
+    }
+
+    private synchronized void rebuild() {
+        var properties = cryptoraProperties.symbols();
+        Set<String> excluded = new TreeSet<>(removed);
+        if (properties.exclude() != null) {
+            properties.exclude().forEach(symbol -> excluded.add(symbol.toUpperCase(Locale.ROOT)));
+        }
+
+        List<String> included = properties.include() == null ? List.of() : properties.include();
+        TreeSet<String> universe = new TreeSet<>();
+        Stream.of(included.stream(), discovered.stream(), added.stream())
+                .flatMap(stream -> stream)
+                .map(symbol -> symbol.toUpperCase(Locale.ROOT))
+                .filter(symbol -> !excluded.contains(symbol))
+                .forEach(universe::add);
+
+        List<String> interned = universe.stream()
+                .map(this::intern)
+                .toList();
+        if (!interned.equals(symbols)) {
+            log.info("SymbolRegistry | Universe changed, symbols: {}", interned.size());
+        }
+        symbols = interned;
+    }
+
+    private String intern(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) return symbolsById.get(id);
+        symbolsById.add(symbol);
+        ids.put(symbol, symbolsById.size() - 1);
+        return symbol;
+    }
+}
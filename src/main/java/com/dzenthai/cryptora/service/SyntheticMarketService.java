@@ -0,0 +1,94 @@
+package com.dzenthai.cryptora.service;
+
+import com.dzenthai.cryptora.configuration.CryptoraProperties;
+import com.dzenthai.cryptora.model.entity.Candle;
+import com.dzenthai.cryptora.util.RandomWalk;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+
+@Slf4j
+@Service
+@Profile("load-test")
+public class SyntheticMarketService {
+
+    /**
+     * Stands in for Binance under the load-test profile: seeds N symbols with M days of one-minute candles
+     * and then keeps appending closed minutes, so the scheduler and the report API run against live-looking
+     * data without outside services. Every symbol draws from its own stream split off the configured seed,
+     * which makes a run reproducible for a fixed symbol count.
+     */
+
+    private final CryptoraProperties cryptoraProperties;
+
+    private final CandleService candleService;
+
+    private final SymbolRegistry symbolRegistry;
+
+    private final Map<String, RandomWalk> walks = new LinkedHashMap<>();
+
+    public SyntheticMarketService(
+            CryptoraProperties cryptoraProperties,
+            CandleService candleService,
+            SymbolRegistry symbolRegistry
+    ) {
+        this.cryptoraProperties = cryptoraProperties;
+        this.candleService = candleService;
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void seed() {
+        var loadTest = cryptoraProperties.loadTest();
+        Instant start = currentMinute().minus(Duration.ofDays(loadTest.days()));
+        var random = new SplittableRandom(loadTest.seed());
+
+        for (String symbol : getSymbols(loadTest.symbols())) {
+            // Synthetic symbols join the universe, so they are analysed like configured ones.
+            symbolRegistry.add(symbol);
+            walks.put(symbol, new RandomWalk(symbol, random.split(), start));
+        }
+
+        long begin = System.nanoTime();
+        walks.values().forEach(this::advance);
+        log.info("SyntheticMarketService | Seeded {} symbols with {} days of candles in {} ms",
+                walks.size(), loadTest.days(), Duration.ofNanos(System.nanoTime() - begin).toMillis());
+    }
+
+    @Scheduled(fixedRateString = "${cryptora.load-test.tick}", initialDelayString = "${cryptora.load-test.tick}")
+    public synchronized void tick() {
+        log.debug("SyntheticMarketService | Appending closed candles for {} symbols", walks.size());
+        walks.values().forEach(this::advance);
+    }
+
+    private void advance(RandomWalk walk) {
+        List<Candle> candles = walk.until(currentMinute());
+        candleService.saveCandles(walk.getSymbol(), candles);
+    }
+
+    private List<String> getSymbols(int count) {
+        List<String> symbols = new ArrayList<>(symbolRegistry.getSymbols());
+        for (int i = symbols.size() + 1; symbols.size() < count; i++) {
+            symbols.add(String.format(Locale.ROOT, "SYN%03dUSDT", i));
+        }
+        return symbols.subList(0, count);
+    }
+
+    private static Instant currentMinute() {
+        return Instant.now().truncatedTo(ChronoUnit.MINUTES);
+    }
+}
@@ -0,0 +1,53 @@
+package com.dzenthai.cryptora.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+@Slf4j
+@Service
+public class WatermarkService {
+
+    /**
+     * Latest persisted candle close time per symbol, used to answer conditional requests
+     * without querying the candles table.
+     */
+
+    private final SymbolRegistry symbolRegistry;
+
+    private final Map<String, Instant> watermarks = new ConcurrentHashMap<>();
+
+    public WatermarkService(SymbolRegistry symbolRegistry) {
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    public Optional<Instant> getWatermark(String baseAsset) {
+        return Optional.ofNullable(watermarks.get(toSymbol(baseAsset)));
+    }
+
+    public void advance(String baseAsset, Instant closeTime) {
+        if (closeTime == null) return;
+        String symbol = toSymbol(baseAsset);
+        Instant current = watermarks.merge(symbol, closeTime,
+                (prev, next) -> next.isAfter(prev) ? next : prev);
+        log.trace("WatermarkService | Watermark for {}: {}", symbol, current);
+    }
+
+    public String getETag(String baseAsset, String duration, Instant watermark) {
+        return "%s-%s-%d".formatted(
+                toSymbol(baseAsset),
+                duration == null ? "" : duration.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", ""),
+                watermark.toEpochMilli()
+        );
+    }
+
+    private String toSymbol(String baseAsset) {
+        return symbolRegistry.resolve(baseAsset);
+    }
+}
@@ -0,0 +1,93 @@
+package com.dzenthai.cryptora.util;
+
+import com.dzenthai.cryptora.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+
+public final class Bulkhead {
+
+    /**
+     * Limits how many calls of one workload run at a time. A call waits up to the acquire timeout for a
+     * permit and is rejected with {@link BulkheadFullException} after it, so a saturated workload fails fast
+     * instead of queueing on the connection pool of another.
+     */
+
+    private final String workload;
+
+    private final Semaphore permits;
+
+    private final Duration acquireTimeout;
+
+    private final Counter rejected;
+
+    public Bulkhead(String workload, int maxConcurrent, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.workload = workload;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeout = acquireTimeout;
+
+        Gauge.builder("cryptora.bulkhead.active", () -> maxConcurrent - permits.availablePermits())
+                .description("Calls of a workload holding a permit")
+                .tag("workload", workload)
+                .register(meterRegistry);
+        Gauge.builder("cryptora.bulkhead.waiting", permits::getQueueLength)
+                .description("Calls of a workload waiting for a permit")
+                .tag("workload", workload)
+                .register(meterRegistry);
+        Gauge.builder("cryptora.bulkhead.limit", () -> maxConcurrent)
+                .description("Calls of a workload allowed to run at a time")
+                .tag("workload", workload)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("cryptora.bulkhead.rejected")
+                .description("Calls of a workload rejected after waiting for a permit")
+                .tag("workload", workload)
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> task) {
+        acquire();
+        try {
+            return task.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(Runnable task) {
+        acquire();
+        try {
+            task.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Takes a permit for work that completes on another thread, such as a streamed response, and returns the
+     * action giving it back. The action may run more than once, the permit is released the first time.
+     */
+    public Runnable acquireDetached() {
+        acquire();
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) permits.release();
+        };
+    }
+
+    private void acquire() {
+        try {
+            if (permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        throw new BulkheadFullException(workload, acquireTimeout);
+    }
+}
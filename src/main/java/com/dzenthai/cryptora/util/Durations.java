@@ -0,0 +1,39 @@
+package com.dzenthai.cryptora.util;
+
+import java.time.Duration;
+import java.util.Locale;
+
+
+public final class Durations {
+
+    private Durations() {
+    }
+
+    /**
+     * Parses a compact duration such as {@code 30s}, {@code 15m}, {@code 6h} or {@code 7d}: a non-negative
+     * whole number followed by its unit. Anything else is rejected with an {@link IllegalArgumentException}.
+     */
+    public static Duration parse(String duration) {
+        if (duration == null || duration.length() < 2) {
+            throw new IllegalArgumentException("Invalid duration: %s".formatted(duration));
+        }
+        String amount = duration.substring(0, duration.length() - 1);
+        if (!amount.chars().allMatch(Character::isDigit)) {
+            throw new IllegalArgumentException("Invalid duration value: %s".formatted(duration));
+        }
+        long value = Long.parseLong(amount);
+        String unit = duration.substring(duration.length() - 1).toLowerCase(Locale.ROOT);
+
+        try {
+            return switch (unit) {
+                case "d" -> Duration.ofDays(value);
+                case "h" -> Duration.ofHours(value);
+                case "m" -> Duration.ofMinutes(value);
+                case "s" -> Duration.ofSeconds(value);
+                default -> throw new IllegalArgumentException("Unknown duration unit: %s".formatted(unit));
+            };
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Duration out of range: %s".formatted(duration), e);
+        }
+    }
+}
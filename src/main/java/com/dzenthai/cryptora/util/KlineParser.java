@@ -0,0 +1,217 @@
+package com.dzenthai.cryptora.util;
+
+import com.dzenthai.cryptora.model.context.KlineColumns;
+
+import java.nio.charset.StandardCharsets;
+
+
+public final class KlineParser {
+
+    /**
+     * Decodes a Binance klines response, an array of kline arrays, straight from its bytes into columns,
+     * without building a string per value. Numbers may be plain or quoted, as Binance quotes the decimals.
+     * A decimal whose digits fit in 53 bits, with at most 22 fraction digits, is exactly its digits divided
+     * by a power of ten; anything else falls back to {@link Double#parseDouble}. Fields after the trades are
+     * skipped.
+     */
+
+    private static final int FIELDS = 9;
+
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final byte[] json;
+
+    private int position;
+
+    private int valueStart;
+
+    private int valueEnd;
+
+    private KlineParser(byte[] json) {
+        this.json = json;
+    }
+
+    /**
+     * Appends the klines of a response to the columns and returns how many were read.
+     */
+    public static int parse(byte[] json, KlineColumns columns) {
+        return new KlineParser(json).parseInto(columns);
+    }
+
+    private int parseInto(KlineColumns columns) {
+        int rows = 0;
+        expect('[');
+        if (peek() == ']') {
+            position++;
+            return rows;
+        }
+        do {
+            parseKline(columns, rows++);
+        } while (next(']'));
+        return rows;
+    }
+
+    private void parseKline(KlineColumns columns, int row) {
+        expect('[');
+        long openTime = 0;
+        long closeTime = 0;
+        long trades = 0;
+        double openPrice = 0;
+        double highPrice = 0;
+        double lowPrice = 0;
+        double closePrice = 0;
+        double volume = 0;
+        double amount = 0;
+
+        int field = 0;
+        if (peek() != ']') {
+            do {
+                readValue();
+                switch (field++) {
+                    case 0 -> openTime = parseLong();
+                    case 1 -> openPrice = parseDouble();
+                    case 2 -> highPrice = parseDouble();
+                    case 3 -> lowPrice = parseDouble();
+                    case 4 -> closePrice = parseDouble();
+                    case 5 -> volume = parseDouble();
+                    case 6 -> closeTime = parseLong();
+                    case 7 -> amount = parseDouble();
+                    case 8 -> trades = parseLong();
+                    default -> {
+                    }
+                }
+            } while (next(']'));
+        } else {
+            position++;
+        }
+        if (field < FIELDS) {
+            throw new IllegalArgumentException("Invalid kline at row %d: %d fields".formatted(row, field));
+        }
+        columns.append(openTime, openPrice, highPrice, lowPrice, closePrice, volume, closeTime, amount, trades);
+    }
+
+    /**
+     * Marks the bounds of the next value, without the quotes of a string.
+     */
+    private void readValue() {
+        skipWhitespace();
+        if (position < json.length && json[position] == '"') {
+            valueStart = ++position;
+            while (position < json.length && json[position] != '"') position++;
+            if (position == json.length) throw invalid("unterminated string");
+            valueEnd = position++;
+            return;
+        }
+        valueStart = position;
+        while (position < json.length) {
+            byte b = json[position];
+            if (b == ',' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t') break;
+            position++;
+        }
+        valueEnd = position;
+        if (valueStart == valueEnd) throw invalid("empty value");
+    }
+
+    private long parseLong() {
+        int i = valueStart;
+        boolean negative = json[i] == '-';
+        if (negative) i++;
+        if (i == valueEnd || valueEnd - i > MAX_LONG_DIGITS) return Long.parseLong(valueString());
+
+        long value = 0;
+        for (; i < valueEnd; i++) {
+            int digit = json[i] - '0';
+            if (digit < 0 || digit > 9) return Long.parseLong(valueString());
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private double parseDouble() {
+        int i = valueStart;
+        boolean negative = json[i] == '-';
+        if (negative) i++;
+
+        long mantissa = 0;
+        boolean empty = true;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; i < valueEnd; i++) {
+            byte b = json[i];
+            if (b == '.' && !fraction) {
+                fraction = true;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9) return Double.parseDouble(valueString());
+            empty = false;
+            if (fraction) scale++;
+            if (mantissa == 0 && digit == 0) continue;
+            if (++digits > MAX_LONG_DIGITS) return Double.parseDouble(valueString());
+            mantissa = mantissa * 10 + digit;
+        }
+        if (empty) return Double.parseDouble(valueString());
+
+        // Binance pads the fraction with zeros, dropping them keeps most values within the exact range.
+        while (scale > 0 && mantissa != 0 && mantissa % 10 == 0) {
+            mantissa /= 10;
+            scale--;
+        }
+        if (mantissa >= MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(valueString());
+        }
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private String valueString() {
+        return new String(json, valueStart, valueEnd - valueStart, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Consumes a comma and returns true, or the closing bracket and returns false.
+     */
+    private boolean next(char closing) {
+        skipWhitespace();
+        if (position < json.length) {
+            byte b = json[position++];
+            if (b == ',') return true;
+            if (b == closing) return false;
+        }
+        throw invalid("expected ',' or '" + closing + "'");
+    }
+
+    private void expect(char expected) {
+        skipWhitespace();
+        if (position >= json.length || json[position] != expected) {
+            throw invalid("expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    private byte peek() {
+        skipWhitespace();
+        if (position >= json.length) throw invalid("unexpected end");
+        return json[position];
+    }
+
+    private void skipWhitespace() {
+        while (position < json.length) {
+            byte b = json[position];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') return;
+            position++;
+        }
+    }
+
+    private IllegalArgumentException invalid(String reason) {
+        return new IllegalArgumentException("Invalid klines at byte %d: %s".formatted(position, reason));
+    }
+}
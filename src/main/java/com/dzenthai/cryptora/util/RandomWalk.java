@@ -0,0 +1,83 @@
+package com.dzenthai.cryptora.util;
+
+import com.dzenthai.cryptora.model.entity.Candle;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+
+public final class RandomWalk {
+
+    /**
+     * One-minute geometric random walk whose volatility occasionally switches between calm and turbulent
+     * regimes, with volume following volatility. Not thread-safe.
+     */
+
+    private static final Duration CANDLE_INTERVAL = Duration.ofMinutes(1);
+
+    private static final double CALM_VOLATILITY = 0.0002;
+
+    private static final double BASE_VOLATILITY = 0.0005;
+
+    private static final double TURBULENT_VOLATILITY = 0.002;
+
+    private static final int REGIME_SWITCH_ODDS = 720;
+
+    private final String symbol;
+
+    private final SplittableRandom random;
+
+    private double price;
+
+    private double volatility = BASE_VOLATILITY;
+
+    private Instant openTime;
+
+    public RandomWalk(String symbol, SplittableRandom random, Instant openTime) {
+        this.symbol = symbol;
+        this.random = random;
+        this.price = Math.exp(random.nextDouble(Math.log(0.1), Math.log(100_000.0)));
+        this.openTime = openTime;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Generates the candles that have closed before {@code end}.
+     */
+    public List<Candle> until(Instant end) {
+        var candles = new ArrayList<Candle>();
+        while (!openTime.plus(CANDLE_INTERVAL).isAfter(end)) {
+            if (random.nextInt(REGIME_SWITCH_ODDS) == 0) {
+                volatility = random.nextBoolean() ? CALM_VOLATILITY : TURBULENT_VOLATILITY;
+            }
+            double open = price;
+            double close = open * Math.exp(volatility * random.nextGaussian());
+            double high = Math.max(open, close) * (1 + volatility * Math.abs(random.nextGaussian()) / 2);
+            double low = Math.min(open, close) * (1 - volatility * Math.abs(random.nextGaussian()) / 2);
+            double volume = Math.abs(5 + 3 * random.nextGaussian()) * (volatility / BASE_VOLATILITY);
+
+            candles.add(Candle.builder()
+                    .symbol(symbol)
+                    .openTime(openTime)
+                    .closeTime(openTime.plus(CANDLE_INTERVAL).minusMillis(1))
+                    .openPrice(open)
+                    .highPrice(high)
+                    .lowPrice(low)
+                    .closePrice(close)
+                    .volume(volume)
+                    .amount(volume * (high + low + close) / 3)
+                    .trades(100 + random.nextInt(2_000))
+                    .build());
+
+            price = close;
+            openTime = openTime.plus(CANDLE_INTERVAL);
+        }
+        return candles;
+    }
+}
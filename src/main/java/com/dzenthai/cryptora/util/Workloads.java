@@ -0,0 +1,40 @@
+package com.dzenthai.cryptora.util;
+
+import java.util.function.Supplier;
+
+
+public final class Workloads {
+
+    /**
+     * Marks the reads of scheduled and background work: the analysis tick, the hydration of cached series and
+     * sketches, the hot tier synchronisation and the warm-up. The repositories serve reads made inside
+     * {@link #analysis} from the analysis pool and bulkhead, every other read from the report ones, so a burst
+     * of reports cannot starve the analysis and a long hydration cannot hold a report permit.
+     */
+
+    private static final ThreadLocal<Boolean> ANALYSIS = ThreadLocal.withInitial(() -> false);
+
+    private Workloads() {
+    }
+
+    public static <T> T analysis(Supplier<T> task) {
+        if (ANALYSIS.get()) return task.get();
+        ANALYSIS.set(true);
+        try {
+            return task.get();
+        } finally {
+            ANALYSIS.remove();
+        }
+    }
+
+    public static void analysis(Runnable task) {
+        analysis(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static boolean isAnalysis() {
+        return ANALYSIS.get();
+    }
+}
@@ -0,0 +1,14 @@
+CREATE TABLE public.cluster_nodes
+(
+    node_id      TEXT        NOT NULL PRIMARY KEY,
+    heartbeat_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE TABLE public.symbol_leases
+(
+    symbol     TEXT        NOT NULL PRIMARY KEY,
+    owner      TEXT        NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX ON public.symbol_leases (owner);
@@ -0,0 +1,52 @@
+CREATE MATERIALIZED VIEW public.candles_1h
+    WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT symbol,
+       time_bucket(INTERVAL '1 hour', close_time)          AS bucket,
+       min(open_time)                                      AS open_time,
+       max(close_time)                                     AS close_time,
+       first(open_price, close_time)                       AS open_price,
+       max(high_price)                                     AS high_price,
+       min(low_price)                                      AS low_price,
+       last(close_price, close_time)                       AS close_price,
+       sum(volume)                                         AS volume,
+       sum(amount)                                         AS amount,
+       sum(trades)                                         AS trades,
+       sum(amount) / NULLIF(sum(volume), 0)                AS vwap
+FROM public.candles
+GROUP BY symbol, bucket
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW public.candles_1d
+    WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT symbol,
+       time_bucket(INTERVAL '1 day', bucket)               AS bucket,
+       min(open_time)                                      AS open_time,
+       max(close_time)                                     AS close_time,
+       first(open_price, close_time)                       AS open_price,
+       max(high_price)                                     AS high_price,
+       min(low_price)                                      AS low_price,
+       last(close_price, close_time)                       AS close_price,
+       sum(volume)                                         AS volume,
+       sum(amount)                                         AS amount,
+       sum(trades)                                         AS trades,
+       sum(amount) / NULLIF(sum(volume), 0)                AS vwap
+FROM public.candles_1h
+GROUP BY symbol, time_bucket(INTERVAL '1 day', bucket)
+WITH NO DATA;
+
+-- Refresh windows end before the 90 day raw retention: a refresh over dropped raw chunks would empty the
+-- rollups, outside the window they are kept as materialized. The first runs backfill the retained history.
+SELECT add_continuous_aggregate_policy('public.candles_1h',
+                                       start_offset => INTERVAL '80 days',
+                                       end_offset => INTERVAL '1 hour',
+                                       schedule_interval => INTERVAL '15 minutes');
+SELECT add_continuous_aggregate_policy('public.candles_1d',
+                                       start_offset => INTERVAL '80 days',
+                                       end_offset => INTERVAL '1 day',
+                                       schedule_interval => INTERVAL '1 hour');
+
+ALTER MATERIALIZED VIEW public.candles_1h SET (timescaledb.compress = true);
+ALTER MATERIALIZED VIEW public.candles_1d SET (timescaledb.compress = true);
+
+SELECT add_compression_policy('public.candles_1h', compress_after => INTERVAL '90 days');
+SELECT add_compression_policy('public.candles_1d', compress_after => INTERVAL '180 days');
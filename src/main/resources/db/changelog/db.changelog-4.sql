@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset cryptora:backfill-rollups runInTransaction:false
+-- The refresh policies only cover the last 80 days, so materialize the rest of the retained raw history once.
+-- The window starts at the raw retention, earlier rollups may already outlive their dropped raw chunks.
+-- refresh_continuous_aggregate cannot run inside a transaction block.
+CALL refresh_continuous_aggregate('public.candles_1h', now() - INTERVAL '90 days', now() - INTERVAL '1 hour');
+CALL refresh_continuous_aggregate('public.candles_1d', now() - INTERVAL '90 days', now() - INTERVAL '1 day');